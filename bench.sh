@@ -0,0 +1,5 @@
+# The JMH jars (jmh-core, jmh-generator-annprocess, jopt-simple and commons-math3) must be copied to bench/lib
+javac -encoding UTF-8 -cp "./lib/jline.jar:./lib/jcolor.jar" pretty/*.java pretty/**/*.java -d bench/target
+javac -encoding UTF-8 -cp "./bench/target:./lib/jline.jar:./lib/jcolor.jar:./bench/lib/*" bench/pretty/bench/*.java -d bench/target
+java -cp "./bench/target:./lib/jline.jar:./lib/jcolor.jar:./bench/lib/*" org.openjdk.jmh.Main -prof gc "$@"
+rm -rf bench/target
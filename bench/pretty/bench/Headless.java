@@ -0,0 +1,49 @@
+package pretty.bench;
+
+import pretty.Router;
+import pretty.Session;
+import pretty.backends.HeadlessBackend;
+import pretty.layout.Menu;
+
+/**
+ * Shared headless session of the benchmarks, 
+ * started once for the whole fork
+ */
+public class Headless {
+    private static HeadlessBackend backend;
+    private static Session session;
+
+    private Headless() {};
+
+    /**
+     * Get the headless backend of the session, starting the session on the first call
+     * @return the backend
+     */
+    public static synchronized HeadlessBackend backend() {
+        if(backend == null) {
+            backend = new HeadlessBackend(120, 40);
+            session = new Session(backend);
+            session.getTerminal().setAsyncInput(false);
+            session.getMenu().start();
+        };
+        return backend;
+    };
+
+    /**
+     * Get the menu of the headless session
+     * @return the menu
+     */
+    public static Menu menu() {
+        backend();
+        return session.getMenu();
+    };
+
+    /**
+     * Get the router of the headless session
+     * @return the router
+     */
+    public static Router router() {
+        backend();
+        return session.getRouter();
+    };
+};
@@ -0,0 +1,60 @@
+package pretty.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pretty.backends.HeadlessBackend;
+import pretty.layout.Menu;
+
+/**
+ * Cost of reading and parsing numbers typed by the user,
+ * including an invalid input and its warning
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBenchmark {
+    private Menu menu;
+    private HeadlessBackend backend;
+
+    @Setup
+    public void setup() {
+        menu = Headless.menu();
+        backend = Headless.backend();
+    };
+
+    @Benchmark
+    public int getInt() {
+        menu.cleanup();
+        backend.line("42");
+        return menu.getInt("Número: ", null);
+    };
+
+    @Benchmark
+    public double getDouble() {
+        menu.cleanup();
+        backend.line("3.14");
+        return menu.getDouble("Número: ", null);
+    };
+
+    @Benchmark
+    public int getIntInvalid() {
+        menu.cleanup();
+        backend.line("quarenta e dois");
+        backend.line("42");
+        return menu.getInt("Número: ", null);
+    };
+};
@@ -0,0 +1,86 @@
+package pretty.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pretty.backends.HeadlessBackend;
+import pretty.keys.Key;
+import pretty.layout.Menu;
+import pretty.layout.Selection;
+import pretty.utils.LockSet;
+
+/**
+ * Cost of moving through option lists of many sizes, with and without 
+ * locked options, in the selection alone and in a whole getPageOption
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NavigationBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean locked;
+
+    private String[] options;
+    private LockSet lockeds;
+    private Selection selection;
+    private Menu menu;
+    private HeadlessBackend backend;
+
+    @Setup
+    public void setup() {
+        options = new String[size];
+        lockeds = new LockSet();
+        for(int i = 0; i < size; i++) {
+            options[i] = "Opção " + i;
+            // Every other option is locked, the worst case for skipping them
+            if(locked && i % 2 == 1) lockeds.lock(i);
+        };
+        selection = new Selection(size, lockeds, 10, 0);
+        menu = Headless.menu();
+        backend = Headless.backend();
+    };
+
+    @Benchmark
+    public int next() {
+        selection.next();
+        return selection.getSelected();
+    };
+
+    @Benchmark
+    public int nextPage() {
+        selection.nextPage();
+        return selection.getSelected();
+    };
+
+    @Benchmark
+    public int move() {
+        selection.move(size / 3);
+        return selection.getSelected();
+    };
+
+    @Benchmark
+    public int getPageOption() {
+        backend.press(Key.DOWN);
+        backend.press(Key.RIGHT);
+        backend.press(Key.ENTER);
+        menu.cleanup();
+        return menu.getPageOption(options, lockeds, 10, 0, "Sair");
+    };
+};
@@ -0,0 +1,50 @@
+package pretty.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pretty.layout.Menu;
+import pretty.layout.ProgressBar;
+
+/**
+ * Cost of reporting progress from many threads, while
+ * the bar is repainted by the render scheduler
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressBenchmark {
+    private ProgressBar bar;
+
+    @Setup
+    public void setup() {
+        Menu menu = Headless.menu();
+        menu.cleanup();
+        bar = menu.progress("Exportando", Long.MAX_VALUE);
+    };
+
+    @Benchmark
+    public void step() {
+        bar.step();
+    };
+
+    @Benchmark
+    @Threads(4)
+    public void stepConcurrent() {
+        bar.step();
+    };
+};
@@ -0,0 +1,81 @@
+package pretty.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pretty.Terminal;
+import pretty.backends.HeadlessBackend;
+import pretty.keys.Key;
+import pretty.layout.Lines;
+import pretty.layout.Menu;
+import pretty.layout.Renderer;
+
+/**
+ * Cost of rendering frames of many sizes, redrawing all lines
+ * or only the ones that changed since the last frame
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+    @Param({"10", "100", "1000"})
+    public int lines;
+
+    private Renderer renderer;
+    private Lines frame = new Lines();
+    private Lines other = new Lines();
+    private Menu menu;
+
+    @Setup
+    public void setup() {
+        Terminal<Key> terminal = Terminal.build();
+        terminal.setBackend(new HeadlessBackend(120, lines + 2));
+        terminal.setAsyncInput(false);
+        terminal.start();
+        renderer = new Renderer(terminal);
+
+        for(int i = 0; i < lines; i++) {
+            frame.add("- option " + i);
+            other.add(i == lines / 2? "> option " + i: "- option " + i);
+        };
+        menu = Headless.menu();
+    };
+
+    @Benchmark
+    public void redraw() {
+        renderer.invalidate();
+        renderer.render(frame, true);
+    };
+
+    @Benchmark
+    public void diff() {
+        // Frames alternate on a single line, as a selection moving
+        renderer.render(frame, true);
+        renderer.render(other, true);
+    };
+
+    @Benchmark
+    public void push() {
+        menu.begin();
+        try {
+            menu.cleanup();
+            for(int i = 0; i < lines; i++) menu.push("- option " + i);
+        } finally {
+            menu.commit();
+        }
+    };
+};
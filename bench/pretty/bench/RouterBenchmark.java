@@ -0,0 +1,59 @@
+package pretty.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pretty.Router;
+import pretty.interfaces.Page;
+
+/**
+ * Cost of navigating between pages that only push lines
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+    private Router router;
+
+    private Page home = (menu, router) -> {
+        menu.header("Início");
+        for(int i = 0; i < 10; i++) menu.push("- item " + i);
+        menu.divider();
+    };
+
+    private Page details = (menu, router) -> {
+        menu.header("Detalhes");
+        for(int i = 0; i < 20; i++) menu.push("- detalhe " + i);
+        menu.divider();
+    };
+
+    @Setup
+    public void setup() {
+        router = Headless.router();
+        router.start(home);
+    };
+
+    @Benchmark
+    public void navigateAndBack() {
+        router.navigate(details);
+        router.back();
+    };
+
+    @Benchmark
+    public void replace() {
+        router.replace(home);
+    };
+};
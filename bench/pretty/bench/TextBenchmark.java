@@ -0,0 +1,68 @@
+package pretty.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pretty.layout.Text;
+import pretty.utils.Width;
+
+/**
+ * Throughput of styling text, as strings and appended to a buffer,
+ * and of measuring its width on the terminal
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmark {
+    private String message = "Confirmar a operação";
+    private String styled = Text.header(message);
+    private StringBuilder buffer = new StringBuilder();
+
+    @Benchmark
+    public String highlight() {
+        return Text.highlight(message);
+    };
+
+    @Benchmark
+    public String highlightNumber() {
+        return Text.highlight(42);
+    };
+
+    @Benchmark
+    public String header() {
+        return Text.header(message);
+    };
+
+    @Benchmark
+    public int width() {
+        return Width.of(message);
+    };
+
+    @Benchmark
+    public int widthStyled() {
+        return Width.of(styled);
+    };
+
+    @Benchmark
+    public String truncate() {
+        return Width.truncate(styled, 12);
+    };
+
+    @Benchmark
+    public StringBuilder append() {
+        buffer.setLength(0);
+        return Text.HIGHLIGHT.append(buffer, message);
+    };
+};
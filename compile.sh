@@ -1,3 +1,3 @@
-javac -cp "./lib/jline.jar:./lib/jcolor.jar" pretty/*.java pretty/**/*.java -d target
+javac -encoding UTF-8 -cp "./lib/jline.jar:./lib/jcolor.jar" pretty/*.java pretty/**/*.java -d target
 jar cf ./release/jpretty.jar -C target .
 rm -rf target
\ No newline at end of file
@@ -0,0 +1,154 @@
+package pretty;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import pretty.keys.KeyEvent;
+import pretty.metrics.Metrics;
+import pretty.utils.IntQueue;
+
+/**
+ * Reads key events in its own thread and hands them to the 
+ * terminal through a lock-free queue, so keys pressed while
+ * a frame is being drawn are not lost and can be handled at once.
+ * The input is only read once the backend tells it's available,
+ * so it can be paused to let the console read a whole line.
+ * While paused it sleeps until resumed. Starts paused.
+ */
+public class InputReader implements Runnable {
+    private static final long IDLE = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long WAIT = TimeUnit.SECONDS.toNanos(1);
+
+    private Terminal<?> terminal;
+    private IntQueue keys = new IntQueue(256);
+    private volatile Thread thread;
+    private volatile Thread consumer;
+    private volatile boolean running = true;
+    private volatile boolean paused = true;
+    private volatile boolean reading = false;
+
+    /**
+     * Create a reader of a terminal
+     * @param terminal - the terminal
+     */
+    public InputReader(Terminal<?> terminal) {
+        this.terminal = terminal;
+    };
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        try {
+            while(running) {
+                if(paused) {
+                    LockSupport.park(this);
+                    continue;
+                };
+
+                // The wait is bounded, so a reader stopped without input ends
+                if(!terminal.await(WAIT)) continue;
+                reading = true;
+                // Paused while waiting, the input is left to the console
+                if(paused || !running) {
+                    reading = false;
+                    continue;
+                };
+
+                int key = terminal.read();
+                reading = false;
+                if(key == KeyEvent.NONE) break;
+                // Stamped on arrival, so the time waiting in the queue counts as latency
+                long time = Metrics.isEnabled()? System.nanoTime(): 0;
+                while(!keys.offer(key, time)) LockSupport.parkNanos(this, IDLE);
+                LockSupport.unpark(consumer);
+            };
+        } catch (Exception _) {
+        } finally {
+            reading = false;
+            running = false;
+            LockSupport.unpark(consumer);
+        }
+    };
+
+    /**
+     * Check if the reader is still reading keys
+     * @return true if running
+     */
+    public boolean isRunning() {
+        return running;
+    };
+
+    /**
+     * Stop reading keys
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    };
+
+    /**
+     * Pause the reader and wait until it is not in the middle of a read
+     */
+    public void pause() {
+        paused = true;
+        while(reading) LockSupport.parkNanos(this, IDLE);
+    };
+
+    /**
+     * Resume the reader
+     */
+    public void resume() {
+        paused = false;
+        LockSupport.unpark(thread);
+    };
+
+    /**
+     * Take the next key, waiting until one is available
+     * @return the key, or IntQueue.EMPTY if the reader stopped
+     */
+    public int take() {
+        consumer = Thread.currentThread();
+        int key = keys.poll();
+        // Woken by the reader on each key and when it ends
+        while(key == IntQueue.EMPTY && running) {
+            LockSupport.park(this);
+            key = keys.poll();
+        };
+        if(key == IntQueue.EMPTY) key = keys.poll();
+        return key;
+    };
+
+    /**
+     * Get when the last key taken arrived, while metrics are enabled
+     * @return the time from System.nanoTime, or 0 if unknown
+     */
+    public long getTime() {
+        return keys.getTime();
+    };
+
+    /**
+     * Take the next key if one is available
+     * @return the key, or IntQueue.EMPTY if none
+     */
+    public int poll() {
+        return keys.poll();
+    };
+
+    /**
+     * Take the next key, waiting up to a timeout
+     * @param timeout - the max time to wait in nanoseconds
+     * @return the key, or IntQueue.EMPTY if none arrived
+     */
+    public int poll(long timeout) {
+        consumer = Thread.currentThread();
+        long deadline = System.nanoTime() + timeout;
+        int key = keys.poll();
+        while(key == IntQueue.EMPTY && running && !paused) {
+            long remaining = deadline - System.nanoTime();
+            if(remaining <= 0) break;
+            LockSupport.parkNanos(this, remaining);
+            key = keys.poll();
+        };
+        return key;
+    };
+};
@@ -1,27 +1,47 @@
 package pretty;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import pretty.interfaces.Page;
 import pretty.layout.Menu;
+import pretty.metrics.Metrics;
 
 /**
- * Manage navigation between pages
+ * Manage navigation between pages. With the frame cache enabled, 
+ * the widget states of a page are kept when navigating away, so going
+ * back renders it with the same selected options, and pages can remember
+ * their data instead of computing it again.
  */
 public class Router {
-    private static Router instance;
-    private Menu menu = Menu.getInstance();
+    private Menu menu;
     private LinkedList<Page> history = new LinkedList<>();
+    private long nested = 0;
+    private int frameCache = 0;
+    private LinkedHashMap<Page, Frame> frames = new LinkedHashMap<Page, Frame>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Page, Frame> eldest) {
+            return size() > frameCache;
+        };
+    };
 
-    private Router() {};
+    /**
+     * Create a router of a menu, such as the menu of a session
+     * @param menu - the menu
+     */
+    public Router(Menu menu) {
+        this.menu = menu;
+    };
 
     /**
-     * Get the singleton instance of the router
+     * Get the router of the default session
      * @return router instance
      */
     public static Router getInstance() {
-        if(instance == null) instance = new Router();
-        return instance;
+        return Session.getDefault().getRouter();
     };
 
     /**
@@ -32,15 +52,83 @@ public class Router {
         if(history.isEmpty()) {
             menu.start();
             history.addLast(page);
-            update();
+            update(null);
         };
     };
+
+    /**
+     * Set how many pages keep their widget states and remembered 
+     * data, the least recently used are forgotten first. Disabled by default.
+     * @param capacity - the max number of pages, 0 to disable
+     */
+    public void setFrameCache(int capacity) {
+        this.frameCache = Math.max(capacity, 0);
+        if(frameCache == 0) frames.clear();
+        else while(frames.size() > frameCache) frames.remove(frames.keySet().iterator().next());
+    };
+
+    /**
+     * Remember a value for the current page, computed only once while
+     * the page is in the frame cache, such as the result of a query.
+     * Without the frame cache, the value is always computed.
+     * @param <T> T - the type of the value
+     * @param key - the key of the value in the page
+     * @param supplier - computes the value
+     * @return the remembered value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T remember(String key, Supplier<T> supplier) {
+        if(frameCache == 0 || history.isEmpty()) return supplier.get();
+        Frame frame = frame(history.getLast());
+        if(frame.memo.containsKey(key)) return (T) frame.memo.get(key);
+        T value = supplier.get();
+        frame.memo.put(key, value);
+        return value;
+    };
+
+    /**
+     * Forget the frame and remembered data of the current page
+     */
+    public void invalidate() {
+        if(!history.isEmpty()) invalidate(history.getLast());
+    };
+
+    /**
+     * Forget the frame and remembered data of a page,
+     * it will be rendered again when going back to it
+     * @param page - the page
+     */
+    public void invalidate(Page page) {
+        frames.remove(page);
+    };
+
+    /**
+     * Forget the frames and remembered data of all pages
+     */
+    public void invalidateAll() {
+        frames.clear();
+    };
     
-    private void update() {
+    private void update(int[] widgets) {
         if(!history.isEmpty()) {
             Page current = history.getLast();
-            menu.cleanup();
-            current.render(menu, this);
+            long start = Metrics.isEnabled()? System.nanoTime(): 0;
+            long waited = menu.getTerminal().getInputWait();
+            long inner = nested;
+            menu.begin();
+            try {
+                menu.cleanup();
+                if(widgets != null) menu.restoreWidgetStates(widgets);
+                current.render(menu, this);
+            } finally {
+                menu.commit();
+                if(start != 0) {
+                    // Time waiting for input and rendering pages navigated from this one isn't counted
+                    long busy = System.nanoTime() - start - (menu.getTerminal().getInputWait() - waited);
+                    Metrics.page(current.getClass(), busy - (nested - inner));
+                    nested = inner + busy;
+                };
+            }
         };
     };
 
@@ -49,16 +137,19 @@ public class Router {
      * @param route - page to navigate to
      */
     public void navigate(Page route) {
+        save();
         history.addLast(route);
-        update();
+        update(null);
     };
 
     /**
-     * Navigate back to the previous page
+     * Navigate back to the previous page. If its frame is cached, 
+     * the page is rendered again with the same selected options.
      */
     public void back() {
-        history.removeLast();
-        update();
+        forget(history.removeLast());
+        Frame frame = history.isEmpty()? null: frames.get(history.getLast());
+        update(frame != null? frame.widgets: null);
     };
 
     /**
@@ -66,8 +157,32 @@ public class Router {
      * @param route - page to replace with
      */
     public void replace(Page route) {
-        history.removeLast();
+        forget(history.removeLast());
         history.addLast(route);
-        update();
+        update(null);
+    };
+
+    private void save() {
+        if(frameCache == 0 || history.isEmpty()) return;
+        Frame frame = frame(history.getLast());
+        frame.widgets = menu.getWidgetStates();
+    };
+
+    private void forget(Page page) {
+        if(!frames.isEmpty() && !history.contains(page)) frames.remove(page);
+    };
+
+    private Frame frame(Page page) {
+        Frame frame = frames.get(page);
+        if(frame == null) {
+            frame = new Frame();
+            frames.put(page, frame);
+        };
+        return frame;
+    };
+
+    private static class Frame {
+        private int[] widgets;
+        private HashMap<String, Object> memo = new HashMap<>();
     };
 };
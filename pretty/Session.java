@@ -0,0 +1,90 @@
+package pretty;
+
+import pretty.backends.ConsoleBackend;
+import pretty.interfaces.Page;
+import pretty.interfaces.TerminalBackend;
+import pretty.keys.Key;
+import pretty.layout.Menu;
+
+/**
+ * A user session, with its own terminal, menu and router. Many sessions 
+ * can run in the same process, each one in its own thread, such as a
+ * virtual thread for each connection. The default session is the one 
+ * used by Menu.getInstance and Router.getInstance.
+ */
+public class Session {
+    private Terminal<Key> terminal;
+    private Menu menu;
+    private Router router;
+
+    /**
+     * Create a session on the system terminal
+     */
+    public Session() {
+        this(new ConsoleBackend());
+    };
+
+    /**
+     * Create a session on a backend
+     * @param backend - the backend of the terminal
+     */
+    public Session(TerminalBackend backend) {
+        this.terminal = Terminal.build();
+        this.terminal.setBackend(backend);
+        this.menu = new Menu(terminal);
+        this.router = new Router(menu);
+    };
+
+    /**
+     * Get the default session, created on the first call
+     * @return the default session
+     */
+    public static Session getDefault() {
+        return Default.SESSION;
+    };
+
+    /**
+     * Start the session with a page, returning 
+     * when the page and its navigations end
+     * @param page - the page to start with
+     */
+    public void start(Page page) {
+        router.start(page);
+    };
+
+    /**
+     * Stop reading keys and restore the terminal of the session
+     */
+    public void stop() {
+        menu.stop();
+    };
+
+    /**
+     * Get the terminal of the session
+     * @return the terminal
+     */
+    public Terminal<Key> getTerminal() {
+        return terminal;
+    };
+
+    /**
+     * Get the menu of the session
+     * @return the menu
+     */
+    public Menu getMenu() {
+        return menu;
+    };
+
+    /**
+     * Get the router of the session
+     * @return the router
+     */
+    public Router getRouter() {
+        return router;
+    };
+
+    // Loaded on the first use, which is thread-safe without locks
+    private static class Default {
+        private static final Session SESSION = new Session();
+    };
+};
@@ -7,14 +7,27 @@ import scala.tools.jline.Terminal;
  */
 public class ShutdownHook extends Thread {
     private Terminal terminal;
+    private volatile String reset = "";
     
     public ShutdownHook(Terminal terminal) {
         this.terminal = terminal;
     };
 
+    /**
+     * Set a sequence to be written before the terminal is restored
+     * @param reset - the sequence
+     */
+    public void setReset(String reset) {
+        this.reset = reset;
+    };
+
     @Override
     public void run() {
         try {
+            if(!reset.isEmpty()) {
+                System.out.print(reset);
+                System.out.flush();
+            };
             this.terminal.restore();
         } catch (Exception _) {};
     };
@@ -1,17 +1,42 @@
 package pretty;
 
+import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
+
+import pretty.backends.ConsoleBackend;
+import pretty.errors.InputEnded;
 import pretty.interfaces.KeyTranslator;
+import pretty.interfaces.TerminalBackend;
 import pretty.keys.DefaultKeyTranslator;
 import pretty.keys.Key;
-import scala.tools.jline.console.ConsoleReader;
+import pretty.keys.KeyEvent;
+import pretty.metrics.Metrics;
+import pretty.utils.Escape;
+import pretty.utils.IntQueue;
 
 /**
- * Manage terminal input and output
+ * Manage terminal input and output through a backend,
+ * the system terminal by default
  * @param <T> T - type of the keys
  */
 public class Terminal<T> {
-    private ConsoleReader console;
+    private TerminalBackend backend = new ConsoleBackend();
     private KeyTranslator<T> translator;
+    private volatile boolean started = false;
+    private boolean processClear = false;
+    private boolean alternateScreen = false;
+    private boolean asyncInput = !System.getProperty("os.name").toLowerCase().startsWith("windows");
+    private ThreadFactory threadFactory = (runnable) -> {
+        Thread thread = new Thread(runnable, "pretty-input");
+        thread.setDaemon(true);
+        return thread;
+    };
+    private InputReader reader;
+    private Runnable resizeListener;
+    private volatile boolean resizeSignaled = false;
+    private long inputWait = 0;
+    private long keyTime = 0;
+    private volatile boolean ended = false;
 
     /**
      * Build a terminal with the default key translator
@@ -40,30 +65,149 @@ public class Terminal<T> {
      */
     public void start() {
         try {
-            this.console = new ConsoleReader();
-            Runtime.getRuntime().addShutdownHook(new ShutdownHook(this.console.getTerminal()));
+            backend.start();
+            if(resizeListener != null) resizeSignaled = backend.setResizeListener(resizeListener);
+            this.started = true;
+            if(alternateScreen) setAlternateScreen(true);
+            if(asyncInput) {
+                this.reader = new InputReader(this);
+                threadFactory.newThread(reader).start();
+            };
         } catch (Exception _) {};
     };
 
     /**
-     * Clear the terminal screen
+     * Set the backend that reads the input and writes the output,
+     * such as HeadlessBackend for tests. Must be called before start.
+     * @param backend - the backend
+     */
+    public void setBackend(TerminalBackend backend) {
+        this.backend = backend;
+    };
+
+    /**
+     * Set what is run when the backend tells the screen was resized,
+     * set by the menu. Must be called before start.
+     * @param resizeListener - the listener
+     */
+    public void setResizeListener(Runnable resizeListener) {
+        this.resizeListener = resizeListener;
+    };
+
+    /**
+     * Check if the backend tells when the screen is resized,
+     * so its size doesn't need to be checked while waiting
+     * @return true if resizes are told to the listener
+     */
+    public boolean isResizeSignaled() {
+        return resizeSignaled;
+    };
+
+    /**
+     * Get the backend that reads the input and writes the output
+     * @return the backend
+     */
+    public TerminalBackend getBackend() {
+        return backend;
+    };
+
+    /**
+     * Stop reading keys and restore the terminal
+     */
+    public void stop() {
+        if(reader != null) reader.stop();
+        reader = null;
+        started = false;
+        backend.restore();
+    };
+
+    /**
+     * Check if the terminal was started and not stopped
+     * @return true if started
+     */
+    public boolean isStarted() {
+        return started;
+    };
+
+    /**
+     * Set if keys should be read by a dedicated thread, enabled 
+     * by default except on Windows. Must be called before start.
+     * @param asyncInput - true to read keys in another thread
+     */
+    public void setAsyncInput(boolean asyncInput) {
+        this.asyncInput = asyncInput;
+    };
+
+    /**
+     * Set the factory of the thread that reads the keys, 
+     * such as Thread.ofVirtual().factory(). Must be called before start.
+     * @param threadFactory - the thread factory
+     */
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    };
+
+    /**
+     * Clear the terminal screen, writing the escape sequences
+     * directly or spawning a clear process if enabled
      */
     public void clear() {
-        try {
-            String os = System.getProperty("os.name");
-            if (os.toLowerCase().contains("windows")) {
-                new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
-            } else {
-                new ProcessBuilder("clear").inheritIO().start().waitFor();
-            };
-        } catch (Exception _) {
-            try {
-                console.clearScreen();
-            } catch (Exception _) {
-                System.out.print("\033[H\033[2J");
-                System.out.flush();
-            } 
-        }
+        if(processClear) backend.clear();
+        else write(Escape.CLEAR);
+    };
+
+    /**
+     * Check if the screen is cleared by a process instead of escape sequences
+     * @return true if a clear process is spawned on each clear
+     */
+    public boolean isProcessClear() {
+        return processClear;
+    };
+
+    /**
+     * Set if the screen should be cleared by spawning a clear process
+     * (cls on Windows), for terminals that don't understand escape sequences
+     * @param processClear - true to spawn a process on each clear
+     */
+    public void setProcessClear(boolean processClear) {
+        this.processClear = processClear;
+    };
+
+    /**
+     * Set if the menu should be drawn in the alternate screen buffer,
+     * leaving the original screen untouched when the program ends
+     * @param alternateScreen - true to use the alternate screen buffer
+     */
+    public void setAlternateScreen(boolean alternateScreen) {
+        this.alternateScreen = alternateScreen;
+        if(!started) return;
+        write(alternateScreen? Escape.ALTERNATE_SCREEN: Escape.MAIN_SCREEN);
+        backend.setReset(alternateScreen? Escape.MAIN_SCREEN: "");
+    };
+
+    /**
+     * Write text to the terminal output and flush it
+     * @param text - the text to write
+     */
+    public void write(CharSequence text) {
+        if(text.length() == 0) return;
+        backend.write(text);
+    };
+
+    /**
+     * Get the width of the terminal
+     * @return the number of columns, or 0 if unknown
+     */
+    public int width() {
+        return backend.width();
+    };
+
+    /**
+     * Get the height of the terminal
+     * @return the number of rows, or 0 if unknown
+     */
+    public int height() {
+        return backend.height();
     };
 
     /**
@@ -71,15 +215,40 @@ public class Terminal<T> {
      * the next line as Scanner's method
      * @param prompt - prompt to print
      * @return the next line
+     * @throws InputEnded if the input ended
      */
     public String nextLine(String prompt) {
+        StringBuilder typed = new StringBuilder();
+        if(reader != null) {
+            reader.pause();
+            // Keys read ahead before the prompt are the start of the line
+            int event;
+            while((event = reader.poll()) != IntQueue.EMPTY) {
+                switch (KeyEvent.key(event)) {
+                    case ENTER:
+                        write(typed.insert(0, prompt).append('\n'));
+                        return typed.substring(prompt.length(), typed.length() - 1).trim();
+                    case SPACE:
+                        typed.append(' ');
+                        break;
+                    case BACKSPACE:
+                        if(typed.length() > 0) typed.setLength(typed.length() - 1);
+                        break;
+                    default:
+                        if(KeyEvent.isCharacter(event)) typed.appendCodePoint(KeyEvent.codePoint(event));
+                        break;
+                }
+            };
+        };
+
+        long start = Metrics.isEnabled()? System.nanoTime(): 0;
         try {
-            console.setPrompt(prompt);
-            String line = console.readLine().trim();
-            console.setPrompt("");
-            return line;
+            return (typed + backend.readLine(prompt + typed)).trim();
         } catch (Exception _) {
-            return "";
+            this.ended = true;
+            throw new InputEnded();
+        } finally {
+            if(start != 0) inputWait += System.nanoTime() - start;
         }
     };
 
@@ -88,11 +257,130 @@ public class Terminal<T> {
      * @return the key
      */
     public T key() {
+        int event = event();
+        if(event == KeyEvent.NONE) return translator.untranslatable();
+        return translator.translateEvent(event);
+    };
+
+    /**
+     * Return the next key already pressed, without waiting. Keys are
+     * only read ahead when the input is read by a dedicated thread.
+     * @return the key, or null if no key is pending
+     */
+    public T poll() {
+        int event = pollEvent();
+        if(event == KeyEvent.NONE) return null;
+        return translator.translateEvent(event);
+    };
+
+    /**
+     * Return the next key pressed, waiting up to a timeout. Keys are
+     * only read ahead when the input is read by a dedicated thread.
+     * @param timeout - the max time to wait in nanoseconds
+     * @return the key, or null if no key was pressed
+     */
+    public T poll(long timeout) {
+        int event = pollEvent(timeout);
+        if(event == KeyEvent.NONE) return null;
+        return translator.translateEvent(event);
+    };
+
+    /**
+     * Return the next key pressed as an event encoded by KeyEvent
+     * @return the event
+     * @throws InputEnded if the input ended
+     */
+    public int event() {
+        long start = Metrics.isEnabled()? System.nanoTime(): 0;
         try {
-            return translator.translate(console.readVirtualKey());
+            if(reader != null) {
+                reader.resume();
+                int event = reader.take();
+                if(event != IntQueue.EMPTY) {
+                    keyTime = reader.getTime();
+                    return event;
+                };
+            };
+            int event = read();
+            if(event != KeyEvent.NONE) {
+                // Without a reader, the key arrives when it's read
+                keyTime = start != 0? System.nanoTime(): 0;
+                return event;
+            };
         } catch (Exception _) {
-            return translator.untranslatable();
+        } finally {
+            if(start != 0) inputWait += System.nanoTime() - start;
         }
+        this.ended = true;
+        throw new InputEnded();
+    };
+
+    /**
+     * Check if the input ended, after which reading 
+     * keys and lines throws InputEnded
+     * @return true if the input ended
+     */
+    public boolean isEnded() {
+        return ended;
+    };
+
+    /**
+     * Get the time spent waiting for keys and lines while
+     * metrics are enabled, used to measure render times
+     * @return the time, in nanoseconds
+     */
+    public long getInputWait() {
+        return inputWait;
+    };
+
+    /**
+     * Return the next event already pressed, without waiting
+     * @return the event, or KeyEvent.NONE if no key is pending
+     */
+    public int pollEvent() {
+        if(reader == null) return KeyEvent.NONE;
+        int event = reader.poll();
+        if(event == IntQueue.EMPTY) return KeyEvent.NONE;
+        keyTime = reader.getTime();
+        return event;
+    };
+
+    /**
+     * Return the next event pressed, waiting up to a timeout
+     * @param timeout - the max time to wait in nanoseconds
+     * @return the event, or KeyEvent.NONE if no key was pressed
+     */
+    public int pollEvent(long timeout) {
+        if(reader == null) return KeyEvent.NONE;
+        int event = reader.poll(timeout);
+        if(event == IntQueue.EMPTY) return KeyEvent.NONE;
+        keyTime = reader.getTime();
+        return event;
+    };
+
+    /**
+     * Get when the last event returned arrived, while metrics are
+     * enabled, used to measure the latency from a key to its frame
+     * @return the time from System.nanoTime, or 0 if unknown
+     */
+    public long getKeyTime() {
+        return keyTime;
+    };
+
+    int read() throws IOException {
+        return backend.read();
+    };
+
+    boolean await(long timeout) throws IOException {
+        return backend.await(timeout);
+    };
+
+    /**
+     * Stop reading keys ahead until the next key is requested,
+     * so the keys typed after a selection reach the next input
+     */
+    public void pauseInput() {
+        if(reader != null) reader.pause();
     };
 
     /**
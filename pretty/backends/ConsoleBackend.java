@@ -0,0 +1,184 @@
+package pretty.backends;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import pretty.ShutdownHook;
+import pretty.interfaces.TerminalBackend;
+import pretty.keys.KeyDecoder;
+import pretty.utils.BytePipe;
+import pretty.utils.Escape;
+import scala.tools.jline.console.ConsoleReader;
+
+/**
+ * Default backend, reads and writes the system terminal through jline.
+ * Out of Windows, the system input is read by a thread of its own into
+ * a pipe, read by jline and the key decoder, so the arrival of keys can
+ * be waited for. As reads of the system input can't be interrupted,
+ * the thread is started once and stays waiting for input until exit.
+ */
+public class ConsoleBackend implements TerminalBackend {
+    private ConsoleReader console;
+    private ShutdownHook hook;
+    private boolean windows = System.getProperty("os.name").toLowerCase().startsWith("windows");
+    private KeyDecoder decoder = new KeyDecoder();
+    private BytePipe input;
+    private Method handle;
+    private Object winch;
+    private Object previous;
+
+    @Override
+    public void start() throws Exception {
+        if(windows) this.console = new ConsoleReader();
+        else {
+            if(input == null) {
+                input = new BytePipe();
+                Thread pump = new Thread(this::pump, "pretty-input");
+                pump.setDaemon(true);
+                pump.start();
+            };
+            this.console = new ConsoleReader(input, System.out, null, null);
+        };
+        this.hook = new ShutdownHook(this.console.getTerminal());
+        Runtime.getRuntime().addShutdownHook(this.hook);
+    };
+
+    @Override
+    public String readLine(String prompt) throws IOException {
+        console.setPrompt(prompt);
+        String line = console.readLine();
+        console.setPrompt("");
+        if(line == null) throw new IOException("The input ended");
+        return line;
+    };
+
+    @Override
+    public int read() throws IOException {
+        // The Windows console doesn't give escape sequences, only virtual keys
+        if(windows) return KeyDecoder.virtual(console.readVirtualKey());
+        return decoder.read(console.getInput());
+    };
+
+    @Override
+    public boolean available() throws IOException {
+        return console.getInput().available() > 0;
+    };
+
+    @Override
+    public boolean await(long timeout) throws IOException {
+        if(input == null) return TerminalBackend.super.await(timeout);
+        return input.await(timeout);
+    };
+
+    private void pump() {
+        // Not closed at the end, as it would close the system input
+        InputStream system = new FileInputStream(FileDescriptor.in);
+        byte[] buffer = new byte[1024];
+        try {
+            int count;
+            while((count = system.read(buffer)) >= 0) input.write(buffer, count);
+        } catch (IOException _) {
+        } finally {
+            input.close();
+        }
+    };
+
+    @Override
+    public void write(CharSequence text) {
+        try {
+            console.print(text);
+            console.flush();
+        } catch (Exception _) {
+            System.out.print(text);
+            System.out.flush();
+        }
+    };
+
+    /**
+     * Clear the screen spawning a clear process (cls on Windows),
+     * for terminals that don't understand escape sequences
+     */
+    @Override
+    public void clear() {
+        try {
+            if (windows) {
+                new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
+            } else {
+                new ProcessBuilder("clear").inheritIO().start().waitFor();
+            };
+        } catch (Exception _) {
+            try {
+                console.clearScreen();
+            } catch (Exception _) {
+                System.out.print(Escape.CLEAR);
+                System.out.flush();
+            }
+        }
+    };
+
+    @Override
+    public int width() {
+        try {
+            return console.getTerminal().getWidth();
+        } catch (Exception _) {
+            return 0;
+        }
+    };
+
+    @Override
+    public int height() {
+        try {
+            return console.getTerminal().getHeight();
+        } catch (Exception _) {
+            return 0;
+        }
+    };
+
+    /**
+     * Tell resizes by the WINCH signal the terminal sends,
+     * absent on Windows, where the size is checked instead
+     */
+    @Override
+    public boolean setResizeListener(Runnable listener) {
+        if(windows) return false;
+        try {
+            // Loaded by reflection, as the compiler warns of every use of sun.misc without a way to suppress it
+            Class<?> signal = Class.forName("sun.misc.Signal");
+            Class<?> handler = Class.forName("sun.misc.SignalHandler");
+            Object winch = signal.getConstructor(String.class).newInstance("WINCH");
+            Object proxy = Proxy.newProxyInstance(handler.getClassLoader(), new Class<?>[] { handler }, (_, method, arguments) -> {
+                if(method.getDeclaringClass() == Object.class) return method.invoke(listener, arguments);
+                listener.run();
+                return null;
+            });
+            Method handle = signal.getMethod("handle", signal, handler);
+            Object previous = handle.invoke(null, winch, proxy);
+            if(this.previous == null) this.previous = previous;
+            this.handle = handle;
+            this.winch = winch;
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException _) {
+            return false;
+        }
+    };
+
+    @Override
+    public void setReset(String reset) {
+        if(hook != null) hook.setReset(reset);
+    };
+
+    @Override
+    public void restore() {
+        if(hook != null) hook.run();
+        if(previous != null) {
+            try {
+                handle.invoke(null, winch, previous);
+            } catch (ReflectiveOperationException _) {}
+            previous = null;
+        };
+    };
+};
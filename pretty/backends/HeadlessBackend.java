@@ -0,0 +1,396 @@
+package pretty.backends;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import pretty.interfaces.TerminalBackend;
+import pretty.keys.Key;
+import pretty.keys.KeyEvent;
+
+/**
+ * Backend without a real terminal, for tests and benchmarks. The output
+ * is interpreted into an in-memory screen grid, understanding line
+ * breaks, cursor moves and saves, erases and ignoring colors, and the input is
+ * scripted by pressing keys and typing text before or while reading.
+ * Scripts run faster with the async input of Terminal disabled.
+ */
+public class HeadlessBackend implements TerminalBackend {
+    private int width;
+    private int height;
+    private char[][] screen;
+    private int row = 0;
+    private int column = 0;
+    private int savedRow = 0;
+    private int savedColumn = 0;
+    private long written = 0;
+    private long writes = 0;
+    private String reset = "";
+    private Runnable resizeListener;
+    private int[] params = new int[2];
+
+    private int[] input = new int[64];
+    private int head = 0;
+    private int size = 0;
+    private boolean closed = false;
+
+    /**
+     * Create a headless backend with a screen of 80 columns and 24 rows
+     */
+    public HeadlessBackend() {
+        this(80, 24);
+    };
+
+    /**
+     * Create a headless backend
+     * @param width - the number of columns of the screen
+     * @param height - the number of rows of the screen
+     */
+    public HeadlessBackend(int width, int height) {
+        allocate(width, height);
+    };
+
+    //#region Input
+    /**
+     * Press a key
+     * @param key - the key
+     */
+    public void press(Key key) {
+        press(KeyEvent.of(key));
+    };
+
+    /**
+     * Press a key event
+     * @param event - the event, encoded by KeyEvent
+     */
+    public synchronized void press(int event) {
+        if(size == input.length) {
+            int[] grown = new int[input.length * 2];
+            for(int i = 0; i < size; i++) grown[i] = input[(head + i) % input.length];
+            input = grown;
+            head = 0;
+        };
+        input[(head + size) % input.length] = event;
+        size++;
+        notifyAll();
+    };
+
+    /**
+     * Type a text, a key for each character.
+     * Spaces and line breaks are pressed as SPACE and ENTER.
+     * @param text - the text
+     */
+    public void type(String text) {
+        for(int i = 0; i < text.length(); i = text.offsetByCodePoints(i, 1)) {
+            int codePoint = text.codePointAt(i);
+            if(codePoint == ' ') press(Key.SPACE);
+            else if(codePoint == '\n') press(Key.ENTER);
+            else press(KeyEvent.character(codePoint));
+        };
+    };
+
+    /**
+     * Type a text followed by ENTER
+     * @param line - the text
+     */
+    public void line(String line) {
+        type(line);
+        press(Key.ENTER);
+    };
+
+    /**
+     * End the input, reads will fail when no keys are left
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    };
+
+    @Override
+    public synchronized int read() throws IOException {
+        try {
+            while(size == 0 && !closed) wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        if(size == 0) return KeyEvent.NONE;
+        int event = input[head];
+        head = (head + 1) % input.length;
+        size--;
+        return event;
+    };
+
+    @Override
+    public synchronized boolean available() {
+        return size > 0;
+    };
+
+    @Override
+    public synchronized boolean await(long timeout) throws IOException {
+        long deadline = System.nanoTime() + timeout;
+        try {
+            while(size == 0 && !closed) {
+                long remaining = deadline - System.nanoTime();
+                if(remaining <= 0) return false;
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        return true;
+    };
+
+    @Override
+    public String readLine(String prompt) throws IOException {
+        write(prompt);
+        StringBuilder line = new StringBuilder();
+        while(true) {
+            int event = read();
+            if(event == KeyEvent.NONE) throw new EOFException("The input ended");
+            switch (KeyEvent.key(event)) {
+                case ENTER:
+                    write(line.append('\n'));
+                    return line.substring(0, line.length() - 1);
+                case SPACE:
+                    line.append(' ');
+                    break;
+                case BACKSPACE:
+                    if(line.length() > 0) line.setLength(line.length() - 1);
+                    break;
+                default:
+                    if(KeyEvent.isCharacter(event)) line.appendCodePoint(KeyEvent.codePoint(event));
+                    break;
+            }
+        }
+    };
+    //#endregion
+
+    //#region Output
+    @Override
+    public synchronized void write(CharSequence text) {
+        writes++;
+        written += text.length();
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c == '\033' && i + 1 < text.length()) {
+                char next = text.charAt(i + 1);
+                if(next == '[') i = escape(text, i + 2);
+                else if(next == '7') {
+                    savedRow = row;
+                    savedColumn = column;
+                    i++;
+                } else if(next == '8') {
+                    row = Math.min(savedRow, height - 1);
+                    column = Math.min(savedColumn, width);
+                    i++;
+                } else put(c);
+            } else put(c);
+        };
+    };
+
+    @Override
+    public synchronized void clear() {
+        for(char[] line : screen) Arrays.fill(line, ' ');
+        row = 0;
+        column = 0;
+    };
+
+    @Override
+    public synchronized int width() {
+        return width;
+    };
+
+    @Override
+    public synchronized int height() {
+        return height;
+    };
+
+    @Override
+    public void start() {};
+
+    @Override
+    public void setReset(String reset) {
+        this.reset = reset;
+    };
+
+    @Override
+    public void restore() {
+        if(!reset.isEmpty()) write(reset);
+        close();
+    };
+
+    @Override
+    public synchronized boolean setResizeListener(Runnable listener) {
+        this.resizeListener = listener;
+        return true;
+    };
+
+    /**
+     * Resize the screen, keeping the top left of its content,
+     * and tell it as a terminal would
+     * @param width - the number of columns
+     * @param height - the number of rows
+     */
+    public synchronized void resize(int width, int height) {
+        allocate(width, height);
+        if(resizeListener != null) resizeListener.run();
+    };
+
+    /**
+     * Get a row of the screen, without trailing spaces
+     * @param row - the row, starting at 0
+     * @return the text of the row
+     */
+    public synchronized String getRow(int row) {
+        char[] line = screen[row];
+        int end = line.length;
+        while(end > 0 && line[end - 1] == ' ') end--;
+        return new String(line, 0, end);
+    };
+
+    /**
+     * Get the screen as text, a line for each row without trailing spaces
+     * @return the text of the screen
+     */
+    public synchronized String getScreen() {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < height; i++) {
+            if(i > 0) text.append('\n');
+            text.append(getRow(i));
+        };
+        return text.toString();
+    };
+
+    /**
+     * Get the row of the cursor
+     * @return the row, starting at 0
+     */
+    public synchronized int getCursorRow() {
+        return row;
+    };
+
+    /**
+     * Get the column of the cursor
+     * @return the column, starting at 0
+     */
+    public synchronized int getCursorColumn() {
+        return column;
+    };
+
+    /**
+     * Get the number of characters written, including escape sequences
+     * @return the number of characters
+     */
+    public synchronized long getWritten() {
+        return written;
+    };
+
+    /**
+     * Get the number of writes, each one is a flush of the output
+     * @return the number of writes
+     */
+    public synchronized long getWrites() {
+        return writes;
+    };
+    //#endregion
+
+    //#region Private
+    private void allocate(int width, int height) {
+        char[][] screen = new char[Math.max(height, 1)][Math.max(width, 1)];
+        for(int i = 0; i < screen.length; i++) {
+            Arrays.fill(screen[i], ' ');
+            if(this.screen != null && i < this.screen.length) {
+                System.arraycopy(this.screen[i], 0, screen[i], 0, Math.min(this.width, screen[i].length));
+            };
+        };
+        this.screen = screen;
+        this.width = screen[0].length;
+        this.height = screen.length;
+        this.row = Math.min(row, this.height - 1);
+        this.column = Math.min(column, this.width - 1);
+    };
+
+    private void put(char c) {
+        switch (c) {
+            case '\n':
+                // As a terminal with output processing, a line break also returns the cursor
+                column = 0;
+                down();
+                break;
+            case '\r':
+                column = 0;
+                break;
+            case '\b':
+                if(column > 0) column--;
+                break;
+            default:
+                if(c < ' ') break;
+                if(column >= width) {
+                    column = 0;
+                    down();
+                };
+                screen[row][column++] = c;
+                break;
+        }
+    };
+
+    private void down() {
+        if(row < height - 1) {
+            row++;
+            return;
+        };
+        char[] first = screen[0];
+        System.arraycopy(screen, 1, screen, 0, height - 1);
+        Arrays.fill(first, ' ');
+        screen[height - 1] = first;
+    };
+
+    private int escape(CharSequence text, int start) {
+        int count = 0;
+        params[0] = 0;
+        params[1] = 0;
+        int i = start;
+        for(; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c >= '0' && c <= '9') {
+                if(count == 0) count = 1;
+                if(count <= 2) params[count - 1] = params[count - 1] * 10 + c - '0';
+            } else if(c == ';') {
+                if(count == 0) count = 1;
+                count++;
+            } else if(c >= '@' && c <= '~') {
+                command(c);
+                return i;
+            };
+        };
+        return i;
+    };
+
+    private void command(char command) {
+        switch (command) {
+            case 'H':
+                row = Math.min(Math.max(params[0], 1), height) - 1;
+                column = Math.min(Math.max(params[1], 1), width) - 1;
+                break;
+            case 'J':
+                if(params[0] == 2) {
+                    for(char[] line : screen) Arrays.fill(line, ' ');
+                } else {
+                    Arrays.fill(screen[row], Math.min(column, width), width, ' ');
+                    for(int i = row + 1; i < height; i++) Arrays.fill(screen[i], ' ');
+                };
+                break;
+            case 'K':
+                if(params[0] == 2) Arrays.fill(screen[row], ' ');
+                else Arrays.fill(screen[row], Math.min(column, width), width, ' ');
+                break;
+            default:
+                // Colors and screen modes don't change the grid
+                break;
+        }
+    };
+    //#endregion
+};
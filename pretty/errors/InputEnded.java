@@ -0,0 +1,19 @@
+package pretty.errors;
+
+/**
+ * Exception thrown by Terminal when its input ended,
+ * such as a closed connection or the end of a script
+ */
+public class InputEnded extends RuntimeException {
+    /**
+     * Exception thrown when the input ended
+     */
+    public InputEnded() {
+        super("The input ended");
+    };
+
+    @Override
+    public String toString() {
+        return "InputEnded: " + getMessage();
+    };
+};
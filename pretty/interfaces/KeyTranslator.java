@@ -1,16 +1,35 @@
 package pretty.interfaces;
 
+import pretty.keys.KeyDecoder;
+
 /**
- * KeyTranslator interface, used to translate virtual key codes to values
+ * KeyTranslator interface, used to translate keys to values. Keys are
+ * read as events encoded by KeyEvent and given to translateEvent, which
+ * gives translators written for virtual key codes the code of the console.
  * @param <K> K - the type of the values
  */
 public interface KeyTranslator<K> {
+    /**
+     * Translate a key event to a value. By default, the event is
+     * translated back to its virtual key code and given to translate.
+     * @param event - the key event
+     * @return the translated value
+     */
+    public default K translateEvent(int event) {
+        return translate(KeyDecoder.code(event));
+    };
+
     /**
      * Translate an virtual key code to a value
-     * @param key - the virtual key code
+     * @param key - the virtual key code, or -1 if the key has none
      * @return the translated value
+     * @deprecated keys such as F1 or PAGE_UP have no virtual key code,
+     * override translateEvent instead
      */
-    public K translate(int key);
+    @Deprecated
+    public default K translate(int key) {
+        return untranslatable();
+    };
 
     /**
      * Get an untranslatable value
@@ -0,0 +1,15 @@
+package pretty.interfaces;
+
+/**
+ * Layout interface, used to lay out a line for the width of the
+ * terminal, such as a header, laid out again when it's resized
+ */
+@FunctionalInterface
+public interface Layout {
+    /**
+     * Lay out the line
+     * @param width - the number of columns available
+     * @return the line, fitting the columns
+     */
+    String layout(int width);
+};
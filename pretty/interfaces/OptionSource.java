@@ -0,0 +1,51 @@
+package pretty.interfaces;
+
+/**
+ * OptionSource interface, used to provide options on demand,
+ * so only the visible options need to be loaded and formatted.
+ * Options can only be filtered by typing if the source finds
+ * the matches itself, as reading all labels would defeat it.
+ */
+public interface OptionSource {
+    /**
+     * Get the number of options
+     * @return the number of options
+     */
+    int size();
+
+    /**
+     * Get the label of an option
+     * @param index - the index of the option
+     * @return the label
+     */
+    String label(int index);
+
+    /**
+     * Called before a range of options is shown, sources that 
+     * fetch options in batches can load the whole range at once
+     * @param from - the first index, included
+     * @param to - the last index, excluded
+     */
+    default void load(int from, int to) {};
+
+    /**
+     * Called before options scattered in the source are shown, such as
+     * the matches of a filter, with the indexes of a whole page. Sources
+     * that fetch options in batches can load them at once, such as with
+     * an IN clause. By default, the range from the first to the last is loaded.
+     * @param indexes - the indexes, in ascending order
+     */
+    default void load(int[] indexes) {
+        if(indexes.length > 0) load(indexes[0], indexes[indexes.length - 1] + 1);
+    };
+
+    /**
+     * Find the options matching a query typed by the user, such as with
+     * a LIKE clause. By default, the source can't be filtered.
+     * @param query - the query
+     * @return the indexes of the matches in ascending order, or null if the source can't be filtered
+     */
+    default int[] search(String query) {
+        return null;
+    };
+};
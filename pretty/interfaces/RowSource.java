@@ -0,0 +1,39 @@
+package pretty.interfaces;
+
+import java.util.Iterator;
+
+/**
+ * RowSource interface, used to provide the rows of a table through
+ * a cursor, so only the rows shown need to be read and formatted
+ */
+public interface RowSource {
+    /**
+     * Get the names of the columns
+     * @return the names
+     */
+    String[] columns();
+
+    /**
+     * Get the number of rows
+     * @return the number of rows
+     */
+    int size();
+
+    /**
+     * Open a cursor on the rows, in the current order. The cursor is
+     * read until a page is full, and closed if it's AutoCloseable.
+     * @param from - the index of the first row
+     * @return the cursor, each row with a value for each column
+     */
+    Iterator<Object[]> rows(int from);
+
+    /**
+     * Change the order of the rows, such as with an ORDER BY
+     * @param column - the index of the column
+     * @param ascending - true for ascending, false for descending
+     * @return false if the source can't be sorted by the column
+     */
+    default boolean sort(int column, boolean ascending) {
+        return false;
+    };
+};
@@ -0,0 +1,103 @@
+package pretty.interfaces;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TerminalBackend interface, used by Terminal to read input
+ * and write output, so menus can run without a real terminal
+ */
+public interface TerminalBackend {
+    /**
+     * Start the backend, called by Terminal.start
+     * @throws Exception if the backend can't be started
+     */
+    public void start() throws Exception;
+
+    /**
+     * Print a prompt and read a whole line
+     * @param prompt - the prompt
+     * @return the line, without the line break
+     * @throws IOException if the input ended or can't be read
+     */
+    public String readLine(String prompt) throws IOException;
+
+    /**
+     * Read the next key, waiting until one is pressed
+     * @return the key event encoded by KeyEvent, or KeyEvent.NONE if the input ended
+     * @throws IOException if the input can't be read
+     */
+    public int read() throws IOException;
+
+    /**
+     * Check if there is input to be read without waiting
+     * @return true if input is available
+     * @throws IOException if the input can't be read
+     */
+    public boolean available() throws IOException;
+
+    /**
+     * Wait until there is input to be read or the input ended, so keys are
+     * read as they arrive. Backends that can't tell keep the default,
+     * and whether input is available is checked every 2 milliseconds.
+     * @param timeout - the max time to wait in nanoseconds
+     * @return true if a read won't wait
+     * @throws IOException if the input can't be read
+     */
+    public default boolean await(long timeout) throws IOException {
+        long deadline = System.nanoTime() + timeout;
+        while(!available()) {
+            long remaining = deadline - System.nanoTime();
+            if(remaining <= 0) return false;
+            LockSupport.parkNanos(this, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(2)));
+        };
+        return true;
+    };
+
+    /**
+     * Write text to the output and flush it
+     * @param text - the text
+     */
+    public void write(CharSequence text);
+
+    /**
+     * Clear the screen by the best means of the backend
+     */
+    public void clear();
+
+    /**
+     * Get the width of the screen
+     * @return the number of columns, or 0 if unknown
+     */
+    public int width();
+
+    /**
+     * Get the height of the screen
+     * @return the number of rows, or 0 if unknown
+     */
+    public int height();
+
+    /**
+     * Set what is run when the screen is resized, from any thread, so
+     * menus waiting for a key are laid out again at once. Backends that
+     * can't tell keep the default, and their size is checked once a second.
+     * @param listener - the listener
+     * @return true if resizes are told, false if the size must be checked
+     */
+    public default boolean setResizeListener(Runnable listener) {
+        return false;
+    };
+
+    /**
+     * Set a sequence to be written when the backend is restored,
+     * such as the one leaving the alternate screen
+     * @param reset - the sequence
+     */
+    public void setReset(String reset);
+
+    /**
+     * Restore the terminal to the state before start
+     */
+    public void restore();
+};
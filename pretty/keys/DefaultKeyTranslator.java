@@ -3,71 +3,34 @@ package pretty.keys;
 import pretty.interfaces.KeyTranslator;
 
 /**
- * Default key translator, translates virtual key codes to Key values
+ * Default key translator, translates key events to Key values
  */
 public class DefaultKeyTranslator implements KeyTranslator<Key> {
-    private boolean windows = false;
-
     /**
      * Create an instance of DefaultKeyTranslator
      */
-    public DefaultKeyTranslator() {
-        windows = System.getProperty("os.name").toLowerCase().startsWith("windows");
+    public DefaultKeyTranslator() {};
+
+    /**
+     * Translates a key event to a Key value
+     */
+    @Override
+    public Key translateEvent(int event) {
+        return KeyEvent.key(event);
     };
 
     /**
      * Translates a virtual key code to a Key value
+     * @deprecated use translateEvent instead
      */
+    @Deprecated
     @Override
     public Key translate(int key) {
-        if(windows) return translateFromWindows(key);
-        return translateFromUnix(key);
+        return translateEvent(KeyDecoder.virtual(key));
     };
     
     @Override
     public Key untranslatable() {
         return Key.UNTRANSLATABLE;
     };
-
-    private Key translateFromWindows(int key) {
-        switch(key) {
-            case 16:
-                return Key.UP;
-            case 14:
-                return Key.DOWN;
-            case 2:
-                return Key.LEFT;
-            case 6:
-                return Key.RIGHT;
-            case 13:
-                return Key.ENTER;
-            case 8:
-                return Key.BACKSPACE;
-            case 32:
-                return Key.SPACE;
-            default:
-                return Key.untranslatable(key);
-        }
-    };
-
-    private Key translateFromUnix(int key) {
-        switch(key) {
-            case 16:
-                return Key.UP;
-            case 14:
-                return Key.DOWN;
-            case 2:
-                return Key.LEFT;
-            case 6:
-                return Key.RIGHT;
-            case 10:
-                return Key.ENTER;
-            case 8:
-                return Key.BACKSPACE;
-            case 32:
-                return Key.SPACE;
-            default:
-                return Key.untranslatable(key);
-        }
-    };
 };
@@ -1,7 +1,8 @@
 package pretty.keys;
 
 /**
- * Enum representing keys in DefaultKeyTranslator
+ * Enum representing keys in DefaultKeyTranslator. Typed characters
+ * are UNTRANSLATABLE, their code points are kept in KeyEvent.
  */
 public enum Key {
     UNTRANSLATABLE,
@@ -11,7 +12,27 @@ public enum Key {
     UP,
     DOWN,
     LEFT,
-    RIGHT;
+    RIGHT,
+    TAB,
+    ESCAPE,
+    DELETE,
+    INSERT,
+    HOME,
+    END,
+    PAGE_UP,
+    PAGE_DOWN,
+    F1,
+    F2,
+    F3,
+    F4,
+    F5,
+    F6,
+    F7,
+    F8,
+    F9,
+    F10,
+    F11,
+    F12;
 
     /**
      * The code of untranslatable keys
@@ -23,7 +44,10 @@ public enum Key {
      * Get the code of the key. Except for UNTRANSLATABLE, 
      * all others have the value 0 by default.
      * @return the code of the key
+     * @deprecated the code is shared by all untranslatable keys,
+     * use KeyEvent.codePoint with the events of Terminal instead
      */
+    @Deprecated
     public int getCode() {
         return code;
     };
@@ -32,7 +56,10 @@ public enum Key {
      * Create an untranslatable key
      * @param code - the code of the key
      * @return the untranslatable key
+     * @deprecated the code is shared by all untranslatable keys,
+     * use KeyEvent.character instead
      */
+    @Deprecated
     public static Key untranslatable(int code) {
         UNTRANSLATABLE.code = code;
         return UNTRANSLATABLE;
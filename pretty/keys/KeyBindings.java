@@ -0,0 +1,124 @@
+package pretty.keys;
+
+import java.util.Arrays;
+
+/**
+ * Actions bound to key events, stored in an open addressing
+ * table so an event is dispatched in constant time without boxing.
+ */
+public class KeyBindings {
+    private int[] events = new int[16];
+    private Runnable[] actions = new Runnable[16];
+    private int size = 0;
+
+    /**
+     * Create an empty set of bindings
+     */
+    public KeyBindings() {
+        Arrays.fill(events, KeyEvent.NONE);
+    };
+
+    /**
+     * Bind an action to an event, replacing the previous one
+     * @param event - the event, encoded by KeyEvent
+     * @param action - the action, or null to unbind
+     */
+    public void bind(int event, Runnable action) {
+        if(event == KeyEvent.NONE) return;
+        if(action == null) {
+            unbind(event);
+            return;
+        };
+        if((size + 1) * 2 > events.length) grow();
+        int slot = slot(events, event);
+        if(events[slot] == KeyEvent.NONE) size++;
+        events[slot] = event;
+        actions[slot] = action;
+    };
+
+    /**
+     * Remove the action bound to an event
+     * @param event - the event
+     */
+    public void unbind(int event) {
+        if(event == KeyEvent.NONE || size == 0) return;
+        int slot = slot(events, event);
+        if(events[slot] == KeyEvent.NONE) return;
+        events[slot] = KeyEvent.NONE;
+        actions[slot] = null;
+        size--;
+
+        // Entries after the removed one are reinserted to keep the probe chains
+        int mask = events.length - 1;
+        for(int i = (slot + 1) & mask; events[i] != KeyEvent.NONE; i = (i + 1) & mask) {
+            int moved = events[i];
+            Runnable action = actions[i];
+            events[i] = KeyEvent.NONE;
+            actions[i] = null;
+            int target = slot(events, moved);
+            events[target] = moved;
+            actions[target] = action;
+        };
+    };
+
+    /**
+     * Get the action bound to an event
+     * @param event - the event
+     * @return the action, or null if none
+     */
+    public Runnable get(int event) {
+        if(event == KeyEvent.NONE || size == 0) return null;
+        return actions[slot(events, event)];
+    };
+
+    /**
+     * Run the action bound to an event
+     * @param event - the event
+     * @return true if an action was run
+     */
+    public boolean dispatch(int event) {
+        Runnable action = get(event);
+        if(action == null) return false;
+        action.run();
+        return true;
+    };
+
+    /**
+     * Check if there are no bindings
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    };
+
+    /**
+     * Remove all bindings
+     */
+    public void clear() {
+        if(size == 0) return;
+        Arrays.fill(events, KeyEvent.NONE);
+        Arrays.fill(actions, null);
+        size = 0;
+    };
+
+    private static int slot(int[] events, int event) {
+        int mask = events.length - 1;
+        int slot = (event * 0x9E3779B9 >>> 16) & mask;
+        while(events[slot] != KeyEvent.NONE && events[slot] != event) slot = (slot + 1) & mask;
+        return slot;
+    };
+
+    private void grow() {
+        int[] oldEvents = events;
+        Runnable[] oldActions = actions;
+        events = new int[oldEvents.length * 2];
+        actions = new Runnable[oldEvents.length * 2];
+        Arrays.fill(events, KeyEvent.NONE);
+        for(int i = 0; i < oldEvents.length; i++) {
+            if(oldEvents[i] == KeyEvent.NONE) continue;
+            int slot = slot(events, oldEvents[i]);
+            events[slot] = oldEvents[i];
+            actions[slot] = oldActions[i];
+        };
+    };
+};
@@ -0,0 +1,281 @@
+package pretty.keys;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decodes the bytes typed in a terminal into key events. Single bytes
+ * and escape sequences are looked up in precomputed tables, and a
+ * small state machine follows the escape sequences and UTF-8 characters
+ * split in many bytes. Nothing is allocated while decoding.
+ */
+public class KeyDecoder {
+    private static final long ESCAPE_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(25);
+    private static final long IDLE = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final int GROUND = 0;
+    private static final int ESCAPE = 1;
+    private static final int CSI = 2;
+    private static final int SS3 = 3;
+    private static final int UTF8 = 4;
+
+    private static final boolean WINDOWS = System.getProperty("os.name").toLowerCase().startsWith("windows");
+
+    private static final int[] BYTES = new int[128];
+    private static final int[] VIRTUAL = new int[128];
+    private static final int[] FINALS = new int[128];
+    private static final int[] TILDES = new int[35];
+
+    static {
+        for(int i = 0; i < 128; i++) BYTES[i] = KeyEvent.character(i);
+        for(int i = 1; i <= 26; i++) BYTES[i] = KeyEvent.character('a' + i - 1, KeyEvent.CTRL);
+        BYTES[0] = KeyEvent.character(' ', KeyEvent.CTRL);
+        BYTES[27] = KeyEvent.of(Key.ESCAPE);
+        BYTES[10] = KeyEvent.of(Key.ENTER);
+        BYTES[13] = KeyEvent.of(Key.ENTER);
+        BYTES[8] = KeyEvent.of(Key.BACKSPACE);
+        BYTES[127] = KeyEvent.of(Key.BACKSPACE);
+        BYTES[9] = KeyEvent.of(Key.TAB);
+        BYTES[32] = KeyEvent.of(Key.SPACE);
+
+        // The console translates the arrows and some special keys to control codes,
+        // while in a raw terminal they are only control keys, free to be bound
+        System.arraycopy(BYTES, 0, VIRTUAL, 0, 128);
+        VIRTUAL[16] = KeyEvent.of(Key.UP);
+        VIRTUAL[14] = KeyEvent.of(Key.DOWN);
+        VIRTUAL[2] = KeyEvent.of(Key.LEFT);
+        VIRTUAL[6] = KeyEvent.of(Key.RIGHT);
+        VIRTUAL[1] = KeyEvent.of(Key.HOME);
+        VIRTUAL[5] = KeyEvent.of(Key.END);
+        VIRTUAL[127] = KeyEvent.of(Key.DELETE);
+
+        for(int i = 0; i < 128; i++) FINALS[i] = KeyEvent.NONE;
+        FINALS['A'] = KeyEvent.of(Key.UP);
+        FINALS['B'] = KeyEvent.of(Key.DOWN);
+        FINALS['C'] = KeyEvent.of(Key.RIGHT);
+        FINALS['D'] = KeyEvent.of(Key.LEFT);
+        FINALS['H'] = KeyEvent.of(Key.HOME);
+        FINALS['F'] = KeyEvent.of(Key.END);
+        FINALS['P'] = KeyEvent.of(Key.F1);
+        FINALS['Q'] = KeyEvent.of(Key.F2);
+        FINALS['R'] = KeyEvent.of(Key.F3);
+        FINALS['S'] = KeyEvent.of(Key.F4);
+        FINALS['Z'] = KeyEvent.of(Key.TAB, KeyEvent.SHIFT);
+
+        for(int i = 0; i < TILDES.length; i++) TILDES[i] = KeyEvent.NONE;
+        TILDES[1] = KeyEvent.of(Key.HOME);
+        TILDES[2] = KeyEvent.of(Key.INSERT);
+        TILDES[3] = KeyEvent.of(Key.DELETE);
+        TILDES[4] = KeyEvent.of(Key.END);
+        TILDES[5] = KeyEvent.of(Key.PAGE_UP);
+        TILDES[6] = KeyEvent.of(Key.PAGE_DOWN);
+        TILDES[7] = KeyEvent.of(Key.HOME);
+        TILDES[8] = KeyEvent.of(Key.END);
+        TILDES[11] = KeyEvent.of(Key.F1);
+        TILDES[12] = KeyEvent.of(Key.F2);
+        TILDES[13] = KeyEvent.of(Key.F3);
+        TILDES[14] = KeyEvent.of(Key.F4);
+        TILDES[15] = KeyEvent.of(Key.F5);
+        TILDES[17] = KeyEvent.of(Key.F6);
+        TILDES[18] = KeyEvent.of(Key.F7);
+        TILDES[19] = KeyEvent.of(Key.F8);
+        TILDES[20] = KeyEvent.of(Key.F9);
+        TILDES[21] = KeyEvent.of(Key.F10);
+        TILDES[23] = KeyEvent.of(Key.F11);
+        TILDES[24] = KeyEvent.of(Key.F12);
+    };
+
+    private int state = GROUND;
+    private int modifiers = 0;
+    private int[] params = new int[2];
+    private int count = 0;
+    private int codePoint = 0;
+    private int remaining = 0;
+
+    /**
+     * Translate a virtual key code of the console to an event
+     * @param code - the virtual key code
+     * @return the event, or NONE if the input ended
+     */
+    public static int virtual(int code) {
+        if(code < 0) return KeyEvent.NONE;
+        if(code < 128) return VIRTUAL[code];
+        return KeyEvent.character(code);
+    };
+
+    /**
+     * Translate an event back to the virtual key code the console gives
+     * for it, for translators written for virtual key codes
+     * @param event - the event
+     * @return the virtual key code, or -1 if the key has none
+     */
+    public static int code(int event) {
+        if(event == KeyEvent.NONE) return -1;
+        // The Windows console gives a carriage return for enter
+        if(WINDOWS && event == KeyEvent.of(Key.ENTER)) return 13;
+        for(int i = 0; i < VIRTUAL.length; i++) if(VIRTUAL[i] == event) return i;
+        if(KeyEvent.isCharacter(event) && KeyEvent.modifiers(event) == 0) return KeyEvent.codePoint(event);
+        return -1;
+    };
+
+    /**
+     * Read the next event from an input, waiting until a whole key is
+     * typed. A lone escape is told apart from an escape sequence by
+     * waiting a little for the rest of the sequence.
+     * @param input - the input
+     * @return the event, or NONE if the input ended
+     * @throws IOException if the input can't be read
+     */
+    public int read(InputStream input) throws IOException {
+        while(true) {
+            if(state == ESCAPE && !await(input)) return timeout();
+            int value = input.read();
+            if(value < 0) {
+                reset();
+                return KeyEvent.NONE;
+            };
+
+            int event = feed(value);
+            if(event != KeyEvent.NONE) return event;
+        }
+    };
+
+    /**
+     * Feed a byte to the decoder
+     * @param value - the byte
+     * @return the event, or NONE if more bytes are needed
+     */
+    public int feed(int value) {
+        value &= 0xFF;
+        switch(state) {
+            case ESCAPE:
+                if(value == '[') return next(CSI);
+                if(value == 'O') return next(SS3);
+                if(value == 27) return KeyEvent.of(Key.ESCAPE);
+                state = GROUND;
+                modifiers = KeyEvent.ALT;
+                return ground(value);
+            case CSI:
+                return csi(value);
+            case SS3:
+                return finish(FINALS[value & 0x7F]);
+            case UTF8:
+                return utf8(value);
+            default:
+                modifiers = 0;
+                return ground(value);
+        }
+    };
+
+    /**
+     * End a pending escape when no more bytes arrived
+     * @return the escape event, or NONE if nothing is pending
+     */
+    public int timeout() {
+        boolean escape = state == ESCAPE;
+        reset();
+        return escape? KeyEvent.of(Key.ESCAPE): KeyEvent.NONE;
+    };
+
+    /**
+     * Check if the decoder is in the middle of a key
+     * @return true if more bytes are needed
+     */
+    public boolean isPending() {
+        return state != GROUND;
+    };
+
+    /**
+     * Forget any partially decoded key
+     */
+    public void reset() {
+        state = GROUND;
+        modifiers = 0;
+        count = 0;
+        remaining = 0;
+    };
+
+    private int ground(int value) {
+        if(value < 128) {
+            if(value == 27 && modifiers == 0) return next(ESCAPE);
+            return finish(BYTES[value]);
+        };
+        if(value >= 0xF0) return start(value & 0x07, 3);
+        if(value >= 0xE0) return start(value & 0x0F, 2);
+        if(value >= 0xC0) return start(value & 0x1F, 1);
+        return finish(KeyEvent.character(0xFFFD));
+    };
+
+    private int start(int bits, int remaining) {
+        this.codePoint = bits;
+        this.remaining = remaining;
+        this.state = UTF8;
+        return KeyEvent.NONE;
+    };
+
+    private int utf8(int value) {
+        if((value & 0xC0) != 0x80) {
+            state = GROUND;
+            return finish(KeyEvent.character(0xFFFD));
+        };
+        codePoint = (codePoint << 6) | (value & 0x3F);
+        if(--remaining > 0) return KeyEvent.NONE;
+        return finish(KeyEvent.character(codePoint));
+    };
+
+    private int csi(int value) {
+        if(value >= '0' && value <= '9') {
+            if(count == 0) count = 1;
+            if(count <= params.length) params[count - 1] = Math.min(params[count - 1] * 10 + value - '0', 999);
+            return KeyEvent.NONE;
+        };
+        if(value == ';') {
+            if(count == 0) count = 1;
+            if(count < params.length) params[count] = 0;
+            count++;
+            return KeyEvent.NONE;
+        };
+        // Other intermediate bytes are ignored until the final byte
+        if(value < '@' || value > '~') return KeyEvent.NONE;
+
+        int event = value == '~'
+            ? (count > 0 && params[0] < TILDES.length? TILDES[params[0]]: KeyEvent.NONE)
+            : FINALS[value];
+        // The modifiers are sent as 1 plus a mask of shift, alt and control
+        if(count > 1 && params[1] > 1) modifiers |= mask(params[1] - 1);
+        return finish(event);
+    };
+
+    private static int mask(int bits) {
+        int modifiers = 0;
+        if((bits & 1) != 0) modifiers |= KeyEvent.SHIFT;
+        if((bits & 2) != 0) modifiers |= KeyEvent.ALT;
+        if((bits & 4) != 0) modifiers |= KeyEvent.CTRL;
+        return modifiers;
+    };
+
+    private int next(int state) {
+        this.state = state;
+        this.count = 0;
+        this.params[0] = 0;
+        this.params[1] = 0;
+        return KeyEvent.NONE;
+    };
+
+    private int finish(int event) {
+        int modifiers = this.modifiers;
+        reset();
+        return KeyEvent.with(event, modifiers);
+    };
+
+    private static boolean await(InputStream input) throws IOException {
+        long deadline = System.nanoTime() + ESCAPE_TIMEOUT;
+        while(input.available() <= 0) {
+            if(System.nanoTime() >= deadline) return false;
+            LockSupport.parkNanos(IDLE);
+        };
+        return true;
+    };
+};
@@ -0,0 +1,150 @@
+package pretty.keys;
+
+/**
+ * Key events encoded in a single int, so they are immutable and can be
+ * passed between threads without allocations. The low 21 bits hold the
+ * code point of a character or the ordinal of a special Key,
+ * followed by the modifiers and a flag that tells them apart.
+ */
+public final class KeyEvent {
+    /**
+     * No event, returned when no key was pressed
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Shift modifier
+     */
+    public static final int SHIFT = 1 << 21;
+
+    /**
+     * Alt modifier
+     */
+    public static final int ALT = 1 << 22;
+
+    /**
+     * Control modifier
+     */
+    public static final int CTRL = 1 << 23;
+
+    private static final int SPECIAL = 1 << 24;
+    private static final int VALUE = (1 << 21) - 1;
+    private static final int MODIFIERS = SHIFT | ALT | CTRL;
+    private static final Key[] KEYS = Key.values();
+
+    private KeyEvent() {};
+
+    /**
+     * Encode a special key
+     * @param key - the key
+     * @return the event
+     */
+    public static int of(Key key) {
+        return of(key, 0);
+    };
+
+    /**
+     * Encode a special key with modifiers
+     * @param key - the key
+     * @param modifiers - the modifiers, such as CTRL | SHIFT
+     * @return the event
+     */
+    public static int of(Key key, int modifiers) {
+        return SPECIAL | (modifiers & MODIFIERS) | key.ordinal();
+    };
+
+    /**
+     * Encode a typed character
+     * @param codePoint - the code point of the character
+     * @return the event
+     */
+    public static int character(int codePoint) {
+        return character(codePoint, 0);
+    };
+
+    /**
+     * Encode a typed character with modifiers
+     * @param codePoint - the code point of the character
+     * @param modifiers - the modifiers, such as CTRL | ALT
+     * @return the event
+     */
+    public static int character(int codePoint, int modifiers) {
+        return (modifiers & MODIFIERS) | (codePoint & VALUE);
+    };
+
+    /**
+     * Add modifiers to an event
+     * @param event - the event
+     * @param modifiers - the modifiers
+     * @return the event with the modifiers
+     */
+    public static int with(int event, int modifiers) {
+        if(event == NONE) return NONE;
+        return event | (modifiers & MODIFIERS);
+    };
+
+    /**
+     * Check if an event is a typed character
+     * @param event - the event
+     * @return true if it's a character
+     */
+    public static boolean isCharacter(int event) {
+        return event != NONE && (event & SPECIAL) == 0;
+    };
+
+    /**
+     * Get the key of an event
+     * @param event - the event
+     * @return the key, UNTRANSLATABLE for characters and NONE
+     */
+    public static Key key(int event) {
+        if(event == NONE || (event & SPECIAL) == 0) return Key.UNTRANSLATABLE;
+        return KEYS[event & VALUE];
+    };
+
+    /**
+     * Get the code point of a character event
+     * @param event - the event
+     * @return the code point, or -1 if it's not a character
+     */
+    public static int codePoint(int event) {
+        if(!isCharacter(event)) return -1;
+        return event & VALUE;
+    };
+
+    /**
+     * Get the modifiers of an event
+     * @param event - the event
+     * @return the modifiers
+     */
+    public static int modifiers(int event) {
+        if(event == NONE) return 0;
+        return event & MODIFIERS;
+    };
+
+    /**
+     * Check if an event has a modifier
+     * @param event - the event
+     * @param modifier - the modifier, such as CTRL
+     * @return true if the modifier is pressed
+     */
+    public static boolean has(int event, int modifier) {
+        return (modifiers(event) & modifier) == modifier;
+    };
+
+    /**
+     * Describe an event, such as CTRL+C or SHIFT+TAB
+     * @param event - the event
+     * @return the description
+     */
+    public static String toString(int event) {
+        if(event == NONE) return "NONE";
+        StringBuilder text = new StringBuilder();
+        if(has(event, CTRL)) text.append("CTRL+");
+        if(has(event, ALT)) text.append("ALT+");
+        if(has(event, SHIFT)) text.append("SHIFT+");
+        if(isCharacter(event)) text.appendCodePoint(codePoint(event));
+        else text.append(key(event).name());
+        return text.toString();
+    };
+};
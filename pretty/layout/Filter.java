@@ -0,0 +1,144 @@
+package pretty.layout;
+
+import java.util.Arrays;
+
+import pretty.interfaces.OptionSource;
+import pretty.utils.LockSet;
+
+/**
+ * Type-to-filter state of an option list, used by Menu. The matches
+ * are found by the source, only when the user starts typing, and
+ * sources that can't be searched ignore the typed characters.
+ */
+public class Filter {
+    private OptionSource source;
+    private LockSet lockeds;
+    private StringBuilder query = new StringBuilder();
+    private int[] matches;
+    private LockSet matchesLockeds;
+
+    private OptionSource view = new OptionSource() {
+        @Override
+        public int size() {
+            return matches.length;
+        };
+
+        @Override
+        public String label(int index) {
+            return source.label(matches[index]);
+        };
+
+        @Override
+        public void load(int from, int to) {
+            // The matches of a page are scattered in the source, so they are loaded in a single call
+            source.load(Arrays.copyOfRange(matches, from, Math.min(to, matches.length)));
+        };
+    };
+
+    /**
+     * Create a filter over a source of options
+     * @param source - the source of the options
+     * @param lockeds - the locked options, can be null
+     */
+    public Filter(OptionSource source, LockSet lockeds) {
+        this.source = source;
+        this.lockeds = lockeds != null? lockeds: new LockSet();
+    };
+
+    /**
+     * Check if a key code can be typed in the filter
+     * @param code - the key code
+     * @return true if it's a printable character
+     */
+    public static boolean accepts(int code) {
+        return code > 32 && code != 127 && !Character.isISOControl(code) && Character.isDefined(code);
+    };
+
+    /**
+     * Check if the filter is empty
+     * @return true if nothing was typed
+     */
+    public boolean isEmpty() {
+        return query.length() == 0;
+    };
+
+    /**
+     * Get the typed query
+     * @return the query
+     */
+    public String getQuery() {
+        return query.toString();
+    };
+
+    /**
+     * Type a character in the filter
+     * @param character - the character
+     * @return true if the filter changed, false if the source can't be searched
+     */
+    public boolean type(char character) {
+        query.append(character);
+        if(update()) return true;
+        query.setLength(query.length() - 1);
+        return false;
+    };
+
+    /**
+     * Erase the last typed character
+     * @return true if the filter changed
+     */
+    public boolean erase() {
+        if(isEmpty()) return false;
+        query.setLength(query.length() - 1);
+        update();
+        return true;
+    };
+
+    /**
+     * Get the visible options
+     * @return the options matching the filter
+     */
+    public OptionSource getOptions() {
+        return isEmpty()? source: view;
+    };
+
+    /**
+     * Get the locked options, indexed as the visible options
+     * @return the locked options
+     */
+    public LockSet getLockeds() {
+        return isEmpty()? lockeds: matchesLockeds;
+    };
+
+    /**
+     * Convert a visible option to the index in the source
+     * @param index - the index of the visible option
+     * @return the index in the source, or -1 if none
+     */
+    public int original(int index) {
+        if(index < 0 || isEmpty()) return index;
+        return matches[index];
+    };
+
+    /**
+     * Convert an index in the source to the visible option
+     * @param original - the index in the source
+     * @return the index of the visible option, or -1 if filtered out
+     */
+    public int visible(int original) {
+        if(original < 0 || isEmpty()) return original;
+        int index = Arrays.binarySearch(matches, original);
+        return index >= 0? index: -1;
+    };
+
+    private boolean update() {
+        if(isEmpty()) return true;
+        int[] matches = source.search(query.toString());
+        if(matches == null) return false;
+        this.matches = matches;
+        matchesLockeds = new LockSet();
+        for(int i = 0; i < matches.length; i++) {
+            if(lockeds.isLocked(matches[i])) matchesLockeds.lock(i);
+        };
+        return true;
+    };
+};
@@ -0,0 +1,73 @@
+package pretty.layout;
+
+import java.util.Arrays;
+
+/**
+ * Array-backed buffer of the lines of a menu, truncated in constant time
+ */
+public class Lines {
+    private String[] items = new String[64];
+    private int size = 0;
+
+    /**
+     * Add a line to the end of the buffer
+     * @param line - the line
+     */
+    public void add(String line) {
+        if(size == items.length) items = Arrays.copyOf(items, size * 2);
+        items[size++] = line;
+    };
+
+    /**
+     * Get a line
+     * @param index - the index of the line
+     * @return the line
+     */
+    public String get(int index) {
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return items[index];
+    };
+
+    /**
+     * Replace a line
+     * @param index - the index of the line
+     * @param line - the new line
+     */
+    public void set(int index, String line) {
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        items[index] = line;
+    };
+
+    /**
+     * Get the number of lines
+     * @return the number of lines
+     */
+    public int size() {
+        return size;
+    };
+
+    /**
+     * Check if the buffer is empty
+     * @return true if there are no lines
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    };
+
+    /**
+     * Remove the lines after a size. The removed lines are 
+     * only released when overwritten or on clear.
+     * @param size - the new size
+     */
+    public void truncate(int size) {
+        this.size = Math.max(0, Math.min(size, this.size));
+    };
+
+    /**
+     * Remove all lines
+     */
+    public void clear() {
+        Arrays.fill(items, 0, items.length, null);
+        size = 0;
+    };
+};
@@ -0,0 +1,81 @@
+package pretty.layout;
+
+import java.util.function.Supplier;
+
+/**
+ * A line of the menu that changes while the menu waits for input,
+ * such as a counter or the status of a job. Its text is pushed from
+ * any thread or supplied by a callback, and is repainted by the render
+ * scheduler of the menu. Only the last text set between frames is shown.
+ * The text is a single row, line breaks are shown as spaces.
+ */
+public class LiveRegion {
+    private Supplier<String> supplier;
+    private volatile String text;
+    private volatile boolean dirty = true;
+    private String painted;
+
+    /**
+     * Create a region with a text, changed by set
+     * @param text - the initial text
+     */
+    public LiveRegion(String text) {
+        this.text = row(text);
+    };
+
+    /**
+     * Create a region with a text supplied on each frame,
+     * called by the thread that renders the frame
+     * @param supplier - the supplier of the text
+     */
+    public LiveRegion(Supplier<String> supplier) {
+        this.supplier = supplier;
+        this.text = "";
+    };
+
+    /**
+     * Set the text of the region, from any thread
+     * @param text - the text
+     */
+    public void set(String text) {
+        this.text = row(text);
+        this.dirty = true;
+    };
+
+    /**
+     * Get the last text of the region
+     * @return the text
+     */
+    public String get() {
+        return text;
+    };
+
+    /**
+     * Get the text to be painted, computing it if supplied.
+     * Called with the render lock held.
+     * @return the text
+     */
+    String paint() {
+        if(supplier != null) text = row(supplier.get());
+        dirty = false;
+        painted = text;
+        return painted;
+    };
+
+    /**
+     * Get the text if it changed since it was painted.
+     * Called with the render lock held.
+     * @return the new text, or null if it didn't change
+     */
+    String refresh() {
+        if(supplier == null && !dirty) return null;
+        String previous = painted;
+        String current = paint();
+        return current.equals(previous)? null: current;
+    };
+
+    private static String row(String text) {
+        if(text == null) return "";
+        return text.indexOf('\n') < 0? text: text.replace('\n', ' ');
+    };
+};
@@ -1,36 +1,93 @@
 package pretty.layout;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.function.Supplier;
 
+import pretty.Session;
 import pretty.Terminal;
+import pretty.errors.InputEnded;
 import pretty.errors.InvalidInput;
 import pretty.interfaces.Formatter;
+import pretty.interfaces.Layout;
+import pretty.interfaces.OptionSource;
 import pretty.interfaces.Validator;
 import pretty.keys.Key;
-import pretty.utils.Array;
-import pretty.utils.Calc;
+import pretty.keys.KeyBindings;
+import pretty.keys.KeyEvent;
+import pretty.metrics.Metrics;
+import pretty.utils.LockSet;
+import pretty.utils.Options;
+import pretty.utils.Width;
 
 /**
  * Used to render menus and get input from the user by terminal
  */
 public class Menu {
-    private static Menu instance;
+    private static final String CHOOSE = "[" + Text.highlight("UP") + "/" + Text.highlight("DOWN") + "] Escolher";
+    private static final String CHANGE_PAGE = "[" + Text.highlight("LEFT") + "/" + Text.highlight("RIGHT") + "] Mudar página";
+    private static final String CONFIRM = "[" + Text.highlight("ENTER") + "] Confirmar";
+    private static final String BACK = "[" + Text.highlight("BACKSPACE") + "] Voltar";
+    private static final String ERASE = "[" + Text.highlight("BACKSPACE") + "] Apagar";
+    private static final String BACKSPACE = "[" + Text.highlight("BACKSPACE") + "] ";
+    private static final String SUCCESS = Text.success("+ ");
 
-    private final int WIDTH = 40;
+    private static final int DEFAULT_WIDTH = 40;
+    private static final int MIN_WIDTH = 20;
+    private static final int MAX_KEYS = 1024;
+
+    private int width = 0;
+    private int maxWidth = 0;
     private int temporary = 0;
+    private int temporaryStart = 0;
+    private int transactions = 0;
+    private boolean pending = false;
+    private boolean pendingNewLine = true;
+    private long frameInterval = 0;
+    private long lastFrame = 0;
+    private long[] keyTimes = new long[16];
+    private int keyCount = 0;
+
+    private Terminal<Key> terminal;
+    private Renderer renderer;
+    private RenderScheduler scheduler;
+    private Lines lines = new Lines();
+    private LiveRegion[] regions = new LiveRegion[4];
+    private int[] regionLines = new int[4];
+    private int regionCount = 0;
+    private Layout[] layouts = new Layout[8];
+    private int[] layoutLines = new int[8];
+    private int layoutCount = 0;
+    private KeyBindings bindings = new KeyBindings();
+    private int[] widgets = new int[8];
+    private int widgetCount = 0;
+    private int[] restoredWidgets = new int[0];
 
-    private Terminal<Key> terminal = Terminal.build();
-    private LinkedList<String> lines = new LinkedList<String>();
+    /**
+     * Create a menu with its own terminal
+     */
+    public Menu() {
+        this(Terminal.build());
+    };
 
-    private Menu() {};
+    /**
+     * Create a menu that draws on a terminal, 
+     * such as the terminal of a session
+     * @param terminal - the terminal
+     */
+    public Menu(Terminal<Key> terminal) {
+        this.terminal = terminal;
+        this.renderer = new Renderer(terminal);
+        this.scheduler = new RenderScheduler(terminal, renderer);
+        this.scheduler.setWatcher(this::resized);
+        this.terminal.setResizeListener(scheduler::resized);
+    };
 
     /**
-     * Get the singleton instance of Menu
+     * Get the menu of the default session
      * @return the instance of Menu
      */
     public static Menu getInstance() {
-        if(instance == null) instance = new Menu();
-        return instance;
+        return Session.getDefault().getMenu();
     };
 
     /**
@@ -40,13 +97,40 @@ public class Menu {
         terminal.start();
     };
 
+    /**
+     * Stop the menu, restoring the terminal and ending
+     * the thread that repaints, called by the session
+     */
+    public void stop() {
+        terminal.stop();
+        scheduler.stop();
+    };
+
+    /**
+     * Get the terminal of the menu, to change its
+     * backend or settings before the menu starts
+     * @return the terminal
+     */
+    public Terminal<Key> getTerminal() {
+        return terminal;
+    };
+
+    /**
+     * Get the scheduler that repaints the live regions,
+     * to change its frame rate or thread factory
+     * @return the scheduler
+     */
+    public RenderScheduler getScheduler() {
+        return scheduler;
+    };
+
     //#region Control
     /**
      * Push a line to the menu
      * @param line - the line to be pushed
      */
     public void push(String line) {
-        lines.addLast(line);
+        lines.add(line);
         print(true);
     };
 
@@ -56,7 +140,7 @@ public class Menu {
      * @param newLine - if the line should be end with a new line
      */
     public void push(String line, boolean newLine) {
-        lines.addLast(line);
+        lines.add(line);
         print(newLine);
     };
 
@@ -66,16 +150,118 @@ public class Menu {
      * @param line - the line to be temporarily pushed
      */
     public void temporarilyPush(String line) {
+        if(temporary == 0) temporaryStart = lines.size();
         temporary++;
         push(line);
     };
 
+    /**
+     * Push a line laid out for the width of the terminal, such as
+     * a header. Only these lines are laid out again when the terminal
+     * is resized, so the page isn't rendered again.
+     * @param layout - the layout of the line
+     */
+    public void push(Layout layout) {
+        push(layout, true);
+    };
+
+    /**
+     * Push a line laid out for the width of the terminal
+     * @param layout - the layout of the line
+     * @param newLine - if the line should be end with a new line
+     */
+    public void push(Layout layout, boolean newLine) {
+        if(layoutCount == layouts.length) {
+            layouts = Arrays.copyOf(layouts, layoutCount * 2);
+            layoutLines = Arrays.copyOf(layoutLines, layoutCount * 2);
+        };
+        layouts[layoutCount] = layout;
+        layoutLines[layoutCount++] = lines.size();
+        push(layout.layout(getWidth()), newLine);
+    };
+
     /**
      * Push a line to the menu without rendering it
      * @param line - the line to be pushed
      */
     public void phantomPush(String line) {
-        lines.addLast(line);
+        lines.add(line);
+    };
+
+    /**
+     * Push a live region, a line whose text is set from any thread
+     * and repainted while the menu waits for input. It's removed
+     * as any other line, by rollbacks and cleanup.
+     * @param text - the initial text
+     * @return the region, to set its text
+     */
+    public LiveRegion live(String text) {
+        return live(new LiveRegion(text));
+    };
+
+    /**
+     * Push a live region whose text is supplied on each frame
+     * of the render scheduler, such as the size of a queue
+     * @param supplier - the supplier of the text
+     * @return the region
+     */
+    public LiveRegion live(Supplier<String> supplier) {
+        return live(new LiveRegion(supplier));
+    };
+
+    /**
+     * Push a progress bar, repainted while the menu waits for input
+     * or while the page works, as its own line only
+     * @param label - the label shown before the bar
+     * @param total - the total of steps, 0 if unknown
+     * @return the progress bar, to report steps from any thread
+     */
+    public ProgressBar progress(String label, long total) {
+        ProgressBar bar = new ProgressBar(label, total);
+        live(bar::text);
+        // The page is working, so the frame is shown without waiting for input
+        flush();
+        return bar;
+    };
+
+    /**
+     * Push a spinner, repainted while the menu waits for input
+     * or while the page works, as its own line only
+     * @param label - the label shown after the mark
+     * @return the spinner, to change its label or stop it from any thread
+     */
+    public Spinner spinner(String label) {
+        Spinner spinner = new Spinner(label);
+        live(spinner::text);
+        // The page is working, so the frame is shown without waiting for input
+        flush();
+        return spinner;
+    };
+
+    /**
+     * Show a message as a toast below the input line for a few seconds.
+     * Unlike push, it can be called from any thread, such as a background
+     * job, without disturbing the line being typed or the widget shown.
+     * @param message - the message
+     */
+    public void toast(String message) {
+        scheduler.toast(message);
+    };
+
+    /**
+     * Push a live region
+     * @param region - the region
+     * @return the same region
+     */
+    public LiveRegion live(LiveRegion region) {
+        if(regionCount == regions.length) {
+            regions = Arrays.copyOf(regions, regionCount * 2);
+            regionLines = Arrays.copyOf(regionLines, regionCount * 2);
+        };
+        regions[regionCount] = region;
+        regionLines[regionCount++] = lines.size();
+        push(region.get());
+        return region;
     };
 
     /** 
@@ -91,19 +277,14 @@ public class Menu {
      * @param count - the number of lines
      */
     public void rollback(int count) {
-        while(count > 0) {
-            lines.removeLast();
-            count--;
-        }
-        print(true);
+        restore(lines.size() - count);
     };
 
     /**
      * Rollback the last line, keeping temporary lines
      */
     public void rollbackKeepingTemporary() {
-        lines.removeLast();
-        print(true);
+        restore(lines.size() - 1);
     };
 
     /**
@@ -111,24 +292,266 @@ public class Menu {
      */
     public void cleanup() {
         lines.clear();
+        drop(0);
+        temporary = 0;
+        renderer.resetScroll();
+        bindings.clear();
+        widgetCount = 0;
+        restoredWidgets = new int[0];
+    };
+
+    /**
+     * Mark the current end of the menu, to be restored later
+     * @return the checkpoint
+     */
+    public int checkpoint() {
+        return lines.size();
+    };
+
+    /**
+     * Rollback all lines pushed after a checkpoint, 
+     * including the temporary ones
+     * @param checkpoint - the checkpoint
+     */
+    public void restore(int checkpoint) {
+        lines.truncate(checkpoint);
+        drop(lines.size());
+        if(lines.size() <= temporaryStart) temporary = 0;
+        else temporary = Math.min(temporary, lines.size() - temporaryStart);
+        print(true);
+    };
+
+    /**
+     * Get the state of the option widgets shown since the last cleanup,
+     * the selected option of each one in the order they were shown
+     * @return the states
+     */
+    public int[] getWidgetStates() {
+        return Arrays.copyOf(widgets, widgetCount);
+    };
+
+    /**
+     * Restore the state of the next option widgets, in the order they are
+     * shown, replacing their default selected options. Must be called 
+     * after cleanup, as the states are forgotten on cleanup.
+     * @param states - the states, from getWidgetStates
+     */
+    public void restoreWidgetStates(int[] states) {
+        this.restoredWidgets = states != null? states: new int[0];
+    };
+
+    /**
+     * Scroll through the lines that don't fit the terminal height
+     * @param rows - rows to scroll back, negative to scroll forward
+     */
+    public void scroll(int rows) {
+        renderer.scroll(rows);
+        print(pendingNewLine);
+    };
+
+    /**
+     * Bind an action to a key while waiting for keys in the widgets 
+     * of the current page. Bindings are removed on cleanup, so pages 
+     * bind their keys when rendered. Keys used by a widget aren't
+     * dispatched, except typed characters while filtering options.
+     * @param key - the key
+     * @param action - the action, or null to unbind
+     */
+    public void bind(Key key, Runnable action) {
+        bindings.bind(KeyEvent.of(key), action);
+    };
+
+    /**
+     * Bind an action to a key event, such as KeyEvent.character('q', KeyEvent.CTRL)
+     * @param event - the event, encoded by KeyEvent
+     * @param action - the action, or null to unbind
+     */
+    public void bind(int event, Runnable action) {
+        bindings.bind(event, action);
+    };
+
+    /**
+     * Get the number of columns lines are laid out for: the width
+     * of the terminal, or 40 if unknown, up to the max width
+     * @return the number of columns
+     */
+    public int getWidth() {
+        if(width == 0) width = measure();
+        return width;
+    };
+
+    /**
+     * Set the max number of columns lines are laid out for,
+     * such as headers, dividers and options, from the next frame
+     * @param columns - the max number of columns, 0 for no limit
+     */
+    public void setMaxWidth(int columns) {
+        this.maxWidth = Math.max(columns, 0);
+    };
+
+    /**
+     * Set the max number of frames rendered per second while navigating
+     * options. Keys pressed before the next frame are applied together.
+     * @param fps - the max frames per second, 0 for no limit
+     */
+    public void setMaxFrameRate(int fps) {
+        this.frameInterval = fps > 0? 1_000_000_000L / fps: 0;
+    };
+
+    /**
+     * Begin a frame transaction. Until the matching commit, pushes and
+     * rollbacks are not rendered, except when input is requested from
+     * the user or a progress is shown. Transactions can be nested.
+     */
+    public void begin() {
+        transactions++;
+    };
+
+    /**
+     * Commit a frame transaction, rendering all pending changes 
+     * in a single frame when the outermost transaction ends
+     */
+    public void commit() {
+        if(transactions > 0) transactions--;
+        if(transactions == 0) flush();
     };
     //#endregion
 
     //#region Private
-    private void clear() {
-        terminal.clear();
+    private void print(boolean newLine) {
+        pendingNewLine = newLine;
+        if(transactions > 0) pending = true;
+        else render(newLine);
     };
 
-    private void print(boolean newLine) {
-        clear();
-        for (int i = 0; i < lines.size(); i++) {
-            if(i == lines.size() - 1 && !newLine) {
-                System.out.print(lines.get(i));
-            } else {
-                System.out.println(lines.get(i));
-            };
+    private void flush() {
+        if(pending) {
+            pending = false;
+            render(pendingNewLine);
         };
     };
+
+    private void render(boolean newLine) {
+        scheduler.lock();
+        try {
+            int width = measure();
+            if(width != this.width) reflow(width);
+            for(int i = 0; i < regionCount; i++) lines.set(regionLines[i], regions[i].paint());
+            renderer.render(lines, newLine);
+            scheduler.show(regions, regionLines, regionCount);
+        } finally {
+            scheduler.unlock();
+        }
+        lastFrame = System.nanoTime();
+        // Every key taken since the last frame is reflected by this one
+        for(int i = 0; i < keyCount; i++) Metrics.keyToPaint(lastFrame - keyTimes[i]);
+        keyCount = 0;
+    };
+
+    private void drop(int size) {
+        // Regions and layouts are pushed in order, so the removed ones are the last
+        while(regionCount > 0 && regionLines[regionCount - 1] >= size) regions[--regionCount] = null;
+        while(layoutCount > 0 && layoutLines[layoutCount - 1] >= size) layouts[--layoutCount] = null;
+    };
+
+    private int measure() {
+        int width = terminal.width();
+        // The last column is left free, as some terminals wrap as soon as it's written
+        width = width > 0? width - 1: DEFAULT_WIDTH;
+        if(maxWidth > 0) width = Math.min(width, maxWidth);
+        return Math.max(width, MIN_WIDTH);
+    };
+
+    private void reflow(int width) {
+        this.width = width;
+        for(int i = 0; i < layoutCount; i++) lines.set(layoutLines[i], layouts[i].layout(width));
+    };
+
+    private void resized() {
+        // Called by the scheduler while waiting for a key, only the lines laid out change
+        if(renderer.isResized()) render(pendingNewLine);
+    };
+
+    private static Layout fit(String line) {
+        return (width) -> Width.truncate(line, width);
+    };
+
+    private int event() {
+        flush();
+        scheduler.watch(true);
+        int event;
+        try {
+            event = terminal.event();
+        } finally {
+            scheduler.watch(false);
+        }
+        stamp();
+        return event;
+    };
+
+    private int restoredWidget(int ordinal, int selected) {
+        if(ordinal < restoredWidgets.length && restoredWidgets[ordinal] >= 0) return restoredWidgets[ordinal];
+        return selected;
+    };
+
+    private void saveWidget(int ordinal, int selected) {
+        if(ordinal >= widgets.length) widgets = Arrays.copyOf(widgets, Math.max(widgets.length * 2, ordinal + 1));
+        widgets[ordinal] = selected;
+    };
+
+    private void retry(String message) {
+        Metrics.retry(message);
+        warning(message);
+    };
+
+    private void retry() {
+        // An ended input fails every retry, so it ends the input method instead
+        if(terminal.isEnded()) throw new InputEnded();
+        Metrics.retry(null);
+        rollbackKeepingTemporary();
+    };
+
+    private int pendingEvent() {
+        int event = terminal.pollEvent();
+        if(event == KeyEvent.NONE && frameInterval > 0) {
+            long remaining = lastFrame + frameInterval - System.nanoTime();
+            if(remaining > 0) event = terminal.pollEvent(remaining);
+        };
+        if(event != KeyEvent.NONE) stamp();
+        return event;
+    };
+
+    private void stamp() {
+        // Keys read ahead are painted by the same frame, each one with its own latency
+        long time = terminal.getKeyTime();
+        if(time == 0) return;
+        if(keyCount == keyTimes.length) {
+            if(keyCount == MAX_KEYS) return;
+            keyTimes = Arrays.copyOf(keyTimes, keyCount * 2);
+        };
+        keyTimes[keyCount++] = time;
+    };
+
+    private boolean dispatch(int event) {
+        if(bindings.dispatch(event)) return true;
+        switch (KeyEvent.key(event)) {
+            case PAGE_UP:
+                scroll(Math.max(terminal.height() - 2, 1));
+                return true;
+            case PAGE_DOWN:
+                scroll(-Math.max(terminal.height() - 2, 1));
+                return true;
+            default:
+                return false;
+        }
+    };
+
+    private String nextLine(String prompt) {
+        if(renderer.resetScroll()) print(pendingNewLine);
+        flush();
+        phantomPush(prompt);
+        return terminal.nextLine(prompt);
+    };
     //#endregion
 
     //#region Special
@@ -148,11 +571,16 @@ public class Menu {
      * @param rollbacks - the number of lines to rollback
      */
     public void warning(String message, int rollbacks) {
-        rollback(temporary + rollbacks);
-        temporary = 0;
-        temporarilyPush("");
-        temporarilyPush(Text.warning(">> " + message));
-        temporarilyPush("");
+        begin();
+        try {
+            rollback(temporary + rollbacks);
+            temporary = 0;
+            temporarilyPush("");
+            temporarilyPush(Text.warning(">> " + message));
+            temporarilyPush("");
+        } finally {
+            commit();
+        }
     };
 
     /**
@@ -160,19 +588,22 @@ public class Menu {
      * @param title - the title
      */
     public void header(String title) {
-        int length = title.length() + 2;
-        int space = (WIDTH - 6) - length;
-        int left = Math.floorDiv(space, 2);
-        int right = space - left;
-        push("##" + "=".repeat(left) + "# " + Text.header(title) + " #" + "=".repeat(right) + "##");
+        push((width) -> {
+            // Measured in columns, so styles, accents and wide characters are centered
+            String fitted = Width.truncate(title, width - 8);
+            int length = Width.of(fitted) + 2;
+            int space = (width - 6) - length;
+            int left = Math.floorDiv(space, 2);
+            int right = space - left;
+            return "##" + "=".repeat(left) + "# " + Text.header(fitted) + " #" + "=".repeat(right) + "##";
+        });
     };
 
     /**
      * Push a divider to the menu
      */
     public void divider() {
-        int space = WIDTH - 4;
-        push("##" + "=".repeat(space) + "##");
+        push((width) -> "##" + "=".repeat(width - 4) + "##");
     };
     //#endregion
 
@@ -195,24 +626,22 @@ public class Menu {
      * @return the integer input
      */
     public int getInt(String prompt, Validator<Integer> validator, Formatter<Integer, String> formatter) {
-        try {
-            phantomPush("- " + prompt);
-            String line = terminal.nextLine("- " + prompt);
-            if(line.isEmpty()) throw new Exception();
-            int input = Integer.parseInt(line);
-            if(validator != null) validator.validate(input);
-            rollback();
-            push(Text.success("+ ") + prompt + Text.highlight(formatter.format(input)));
-            return input;
-        } catch (NumberFormatException _) {
-            warning("Por favor, forneça um número inteiro.");
-            return getInt(prompt, validator, formatter);
-        } catch (InvalidInput e) {
-            warning(e.getMessage());
-            return getInt(prompt, validator, formatter);
-        } catch (Exception _) {
-            rollbackKeepingTemporary();
-            return getInt(prompt, validator, formatter);
+        while(true) {
+            try {
+                String line = nextLine("- " + prompt);
+                if(line.isEmpty()) throw new Exception();
+                int input = Integer.parseInt(line);
+                if(validator != null) validator.validate(input);
+                rollback();
+                push(SUCCESS + prompt + Text.highlight(formatter.format(input)));
+                return input;
+            } catch (NumberFormatException _) {
+                retry("Por favor, forneça um número inteiro.");
+            } catch (InvalidInput e) {
+                retry(e.getMessage());
+            } catch (Exception _) {
+                retry();
+            }
         }
     };
 
@@ -234,24 +663,22 @@ public class Menu {
      * @return the long integer input
      */
     public long getLong(String prompt, Validator<Long> validator, Formatter<Long, String> formatter) {
-        try {
-            phantomPush("- " + prompt);
-            String line = terminal.nextLine("- " + prompt);
-            if(line.isEmpty()) throw new Exception();
-            long input = Long.parseLong(line);
-            if(validator != null) validator.validate(input);
-            rollback();
-            push(Text.success("+ ") + prompt + Text.highlight(formatter.format(input)));
-            return input;
-        } catch (NumberFormatException _) {
-            warning("Por favor, forneça um número inteiro.");
-            return getLong(prompt, validator, formatter);
-        } catch (InvalidInput e) {
-            warning(e.getMessage());
-            return getLong(prompt, validator, formatter);
-        } catch (Exception _) {
-            rollbackKeepingTemporary();
-            return getLong(prompt, validator, formatter);
+        while(true) {
+            try {
+                String line = nextLine("- " + prompt);
+                if(line.isEmpty()) throw new Exception();
+                long input = Long.parseLong(line);
+                if(validator != null) validator.validate(input);
+                rollback();
+                push(SUCCESS + prompt + Text.highlight(formatter.format(input)));
+                return input;
+            } catch (NumberFormatException _) {
+                retry("Por favor, forneça um número inteiro.");
+            } catch (InvalidInput e) {
+                retry(e.getMessage());
+            } catch (Exception _) {
+                retry();
+            }
         }
     };
 
@@ -273,24 +700,22 @@ public class Menu {
      * @return the double input
      */
     public double getDouble(String prompt, Validator<Double> validator, Formatter<Double, String> formatter) {
-        try {
-            phantomPush("- " + prompt);
-            String line = terminal.nextLine("- " + prompt);
-            if(line.isEmpty()) throw new Exception();
-            double input = Double.parseDouble(line);
-            if(validator != null) validator.validate(input);
-            rollback();
-            push(Text.success("+ ") + prompt + Text.highlight(formatter.format(input)));
-            return input;
-        } catch (NumberFormatException _) {
-            warning("Por favor, forneça um número.");
-            return getDouble(prompt, validator, formatter);
-        } catch (InvalidInput e) {
-            warning(e.getMessage());
-            return getDouble(prompt, validator, formatter);
-        } catch (Exception _) {
-            rollbackKeepingTemporary();
-            return getDouble(prompt, validator, formatter);
+        while(true) {
+            try {
+                String line = nextLine("- " + prompt);
+                if(line.isEmpty()) throw new Exception();
+                double input = Double.parseDouble(line);
+                if(validator != null) validator.validate(input);
+                rollback();
+                push(SUCCESS + prompt + Text.highlight(formatter.format(input)));
+                return input;
+            } catch (NumberFormatException _) {
+                retry("Por favor, forneça um número.");
+            } catch (InvalidInput e) {
+                retry(e.getMessage());
+            } catch (Exception _) {
+                retry();
+            }
         }
     };
 
@@ -312,24 +737,22 @@ public class Menu {
      * @return the float input
      */
     public float getFloat(String prompt, Validator<Float> validator, Formatter<Float, String> formatter) {
-        try {
-            phantomPush("- " + prompt);
-            String line = terminal.nextLine("- " + prompt);
-            if(line.isEmpty()) throw new Exception();
-            float input = Float.parseFloat(line);
-            if(validator != null) validator.validate(input);
-            rollback();
-            push(Text.success("+ ") + prompt + Text.highlight(formatter.format(input)));
-            return input;
-        } catch (NumberFormatException _) {
-            warning("Por favor, forneça um número.");
-            return getFloat(prompt, validator, formatter);
-        } catch (InvalidInput e) {
-            warning(e.getMessage());
-            return getFloat(prompt, validator, formatter);
-        } catch (Exception _) {
-            rollbackKeepingTemporary();
-            return getFloat(prompt, validator, formatter);
+        while(true) {
+            try {
+                String line = nextLine("- " + prompt);
+                if(line.isEmpty()) throw new Exception();
+                float input = Float.parseFloat(line);
+                if(validator != null) validator.validate(input);
+                rollback();
+                push(SUCCESS + prompt + Text.highlight(formatter.format(input)));
+                return input;
+            } catch (NumberFormatException _) {
+                retry("Por favor, forneça um número.");
+            } catch (InvalidInput e) {
+                retry(e.getMessage());
+            } catch (Exception _) {
+                retry();
+            }
         }
     };
 
@@ -351,19 +774,18 @@ public class Menu {
      * @return the char input
      */
     public char getChar(String prompt, Validator<Character> validator, Formatter<Character, String> formatter) {
-        try {
-            phantomPush("- " + prompt);
-            char input = terminal.nextLine("- " + prompt).charAt(0);
-            if(validator != null) validator.validate(input);
-            rollback();
-            push(Text.success("+ ") + prompt + Text.highlight(formatter.format(input)));
-            return input;
-        } catch (InvalidInput e) {
-            warning(e.getMessage());
-            return getChar(prompt, validator, formatter);
-        } catch (Exception _) {
-            rollbackKeepingTemporary();
-            return getChar(prompt, validator, formatter);
+        while(true) {
+            try {
+                char input = nextLine("- " + prompt).charAt(0);
+                if(validator != null) validator.validate(input);
+                rollback();
+                push(SUCCESS + prompt + Text.highlight(formatter.format(input)));
+                return input;
+            } catch (InvalidInput e) {
+                retry(e.getMessage());
+            } catch (Exception _) {
+                retry();
+            }
         }
     };
 
@@ -385,21 +807,20 @@ public class Menu {
      * @return the string input
      */
     public String getString(String prompt, Validator<String> validator, Formatter<String, String> formatter) {
-        try {
-            phantomPush("- " + prompt);
-            String input = terminal.nextLine("- " + prompt);
-            if(input.isEmpty()) throw new Exception();
-            else if(validator != null) validator.validate(input);
+        while(true) {
+            try {
+                String input = nextLine("- " + prompt);
+                if(input.isEmpty()) throw new Exception();
+                else if(validator != null) validator.validate(input);
             
-            rollback();
-            push(Text.success("+ ") + prompt + Text.highlight(formatter.format(input)));
-            return input;
-        } catch (InvalidInput e) {
-            warning(e.getMessage());
-            return getString(prompt, validator, formatter);
-        } catch (Exception _) {
-            rollbackKeepingTemporary();
-            return getString(prompt, validator, formatter);
+                rollback();
+                push(SUCCESS + prompt + Text.highlight(formatter.format(input)));
+                return input;
+            } catch (InvalidInput e) {
+                retry(e.getMessage());
+            } catch (Exception _) {
+                retry();
+            }
         }
     };
     
@@ -421,38 +842,52 @@ public class Menu {
      * @return the selected option, or -1 if no options is passed
      */
     public int getOption(String prompt, String[] options, int selected) {
-        if(options == null || options.length == -1) return -1;
+        if(options == null || options.length == 0) return -1;
+        int ordinal = widgetCount++;
+        Selection selection = new Selection(options.length, null, 0, restoredWidget(ordinal, selected));
+
+        begin();
         try {
-            push("- " + prompt);
-            for (int i = 0; i < options.length; i++) {
-                if(selected == i) {
-                    push(Text.highlight(" > " + options[i]), i == options.length - 1);
-                } else {
-                    push("   " + options[i], i == options.length - 1);
+            while(true) {
+                int mark = checkpoint();
+                push("- " + prompt);
+                for (int i = 0; i < options.length; i++) {
+                    if(selection.getSelected() == i) {
+                        renderer.setAnchor(lines.size());
+                        push(fit(Text.highlight(" > " + options[i])), i == options.length - 1);
+                    } else {
+                        push(fit("   " + options[i]), i == options.length - 1);
+                    }
                 }
+                divider();
+                push(CHOOSE);
+                push(CONFIRM);
+
+                int event = event();
+                restore(mark);
+                do {
+                    switch (KeyEvent.key(event)) {
+                        case ENTER:
+                            push(SUCCESS + prompt + Text.highlight(options[selection.getSelected()]));
+                            return selection.getSelected();
+                        case DOWN:
+                            selection.queue(1);
+                            break;
+                        case UP:
+                            selection.queue(-1);
+                            break;
+                        default:
+                            dispatch(event);
+                            break;
+                    }
+                } while((event = pendingEvent()) != KeyEvent.NONE);
+                selection.apply();
             }
-            divider();
-            push("[" + Text.highlight("UP") + "/" + Text.highlight("DOWN") + "] Escolher");
-            push("[" + Text.highlight("ENTER") + "] Confirmar");
-
-            Key key = terminal.key();
-            rollback(options.length + 4);
-            switch (key) {
-                case ENTER:
-                    push(Text.success("+ ") + prompt + Text.highlight(options[selected]));
-                    return selected;
-                case DOWN:
-                    if(selected == options.length - 1) return getOption(prompt, options, 0);
-                    return getOption(prompt, options, selected + 1);
-                case UP:
-                    if(selected == 0) return getOption(prompt, options, options.length - 1);
-                    return getOption(prompt, options, selected - 1);
-                default:
-                    return getOption(prompt, options, selected);
-            }
-        } catch (Exception e) {
-            warning(e.getMessage());
-            return getOption(prompt, options);
+        } finally {
+            saveWidget(ordinal, selection.getSelected());
+            renderer.setAnchor(-1);
+            terminal.pauseInput();
+            commit();
         }
     };
     //#endregion
@@ -462,11 +897,13 @@ public class Menu {
      * Push a footer to the menu with the only option to go back
      */
     public void pushPageBack() {
-        push("[" + Text.highlight("BACKSPACE") + "] Voltar");
-        if(terminal.key() != Key.BACKSPACE) {
-            rollback(1);
-            pushPageBack();
+        push(BACK);
+        int event = event();
+        while(KeyEvent.key(event) != Key.BACKSPACE) {
+            dispatch(event);
+            event = event();
         };
+        terminal.pauseInput();
     };
 
     /**
@@ -483,18 +920,24 @@ public class Menu {
      * @return true, if the user confirms, false otherwise
      */
     public boolean getPageConfirmation(String reject) {
-        push("[" + Text.highlight("ENTER") + "] Confirmar");
-        push("[" + Text.highlight("BACKSPACE") + "] " + reject);
+        push(CONFIRM);
+        push(BACKSPACE + reject);
 
-        Key key = terminal.key();
-        switch (key) {
-            case ENTER:
-                return true;
-            case BACKSPACE:
-                return false;
-            default:
-                rollback(2);
-                return getPageConfirmation(reject);
+        try {
+            while(true) {
+                int event = event();
+                switch (KeyEvent.key(event)) {
+                    case ENTER:
+                        return true;
+                    case BACKSPACE:
+                        return false;
+                    default:
+                        dispatch(event);
+                        break;
+                }
+            }
+        } finally {
+            terminal.pauseInput();
         }
     };
 
@@ -504,7 +947,7 @@ public class Menu {
      * @return the selected option or -1 if no options are selected
      */
     public int getPageOption(String[] options) {
-        return getPageOption(options, null, 0, "Sair");
+        return getPageOption(options, new LockSet(), 0, "Sair");
     };
 
     /**
@@ -514,7 +957,7 @@ public class Menu {
      * @return the selected option or -1 if no options are selected
      */
     public int getPageOption(String[] options, String exit) {
-        return getPageOption(options, null, 0, exit);
+        return getPageOption(options, new LockSet(), 0, exit);
     };
 
     /**
@@ -524,6 +967,16 @@ public class Menu {
      * @return the selected option or -1 if no options are selected
      */
     public int getPageOption(String[] options, Integer[] lockeds) {
+        return getPageOption(options, LockSet.of(lockeds), 0, "Sair");
+    };
+
+    /**
+     * Get an option from the user
+     * @param options - the options to be shown
+     * @param lockeds - the locked options
+     * @return the selected option or -1 if no options are selected
+     */
+    public int getPageOption(String[] options, LockSet lockeds) {
         return getPageOption(options, lockeds, 0, "Sair");
     };
 
@@ -535,6 +988,17 @@ public class Menu {
      * @return the selected option or -1 if no options are selected
      */
     public int getPageOption(String[] options, Integer[] lockeds, String exit) {
+        return getPageOption(options, LockSet.of(lockeds), 0, exit);
+    };
+
+    /**
+     * Get an option from the user
+     * @param options - the options to be shown
+     * @param lockeds - the locked options
+     * @param exit - exit option message
+     * @return the selected option or -1 if no options are selected
+     */
+    public int getPageOption(String[] options, LockSet lockeds, String exit) {
         return getPageOption(options, lockeds, 0, exit);
     };
 
@@ -547,6 +1011,18 @@ public class Menu {
      * @return the selected option or -1 if no options are selected
      */
     public int getPageOption(String[] options, Integer[] lockeds, int selected, String exit) {
+        return getPageOption(options, LockSet.of(lockeds), 8, selected, exit);
+    };
+
+    /**
+     * Get an option from the user
+     * @param options - the options to be shown
+     * @param lockeds - the locked options
+     * @param selected - the default selected option
+     * @param exit - exit option message
+     * @return the selected option or -1 if no options are selected
+     */
+    public int getPageOption(String[] options, LockSet lockeds, int selected, String exit) {
         return getPageOption(options, lockeds, 8, selected, exit);
     };
 
@@ -560,7 +1036,7 @@ public class Menu {
      * @return the selected option or -1 if no options are selected
      */
     public int getPageOption(String[] options, int page, int optionsPerPage, int selected, String exit) {
-        return getPageOption(options, null, optionsPerPage, selected, exit);
+        return getPageOption(options, new LockSet(), optionsPerPage, selected, exit);
     };
 
     /**
@@ -573,113 +1049,278 @@ public class Menu {
      * @return - the selected option or -1 if no options are selected
      */
     public int getPageOption(String[] options, Integer[] lockeds, int optionsPerPage, int selected, String exit) {
-        if(options == null || options.length == 0) {
+        return getPageOption(options, LockSet.of(lockeds), optionsPerPage, selected, exit);
+    };
+
+    /**
+     * Get an option from the user
+     * @param options - the options to be shown
+     * @param lockeds - the locked options
+     * @param optionsPerPage - the max number of options per page
+     * @param selected - the default selected option
+     * @param exit - exit option message
+     * @return - the selected option or -1 if no options are selected
+     */
+    public int getPageOption(String[] options, LockSet lockeds, int optionsPerPage, int selected, String exit) {
+        if(options == null) options = new String[0];
+        return selectPageOption(Options.of(options), lockeds, optionsPerPage, selected, exit);
+    };
+
+    /**
+     * Get an option from the user, loading only the options shown
+     * @param source - the source of the options
+     * @return the selected option or -1 if no options are selected
+     */
+    public int getPageOption(OptionSource source) {
+        return getPageOption(source, new LockSet(), 0, "Sair");
+    };
+
+    /**
+     * Get an option from the user, loading only the options shown
+     * @param source - the source of the options
+     * @param lockeds - the locked options
+     * @param exit - exit option message
+     * @return the selected option or -1 if no options are selected
+     */
+    public int getPageOption(OptionSource source, LockSet lockeds, String exit) {
+        return getPageOption(source, lockeds, 0, exit);
+    };
+
+    /**
+     * Get an option from the user, loading only the options shown
+     * @param source - the source of the options
+     * @param lockeds - the locked options
+     * @param selected - the default selected option
+     * @param exit - exit option message
+     * @return the selected option or -1 if no options are selected
+     */
+    public int getPageOption(OptionSource source, LockSet lockeds, int selected, String exit) {
+        return getPageOption(source, lockeds, 8, selected, exit);
+    };
+
+    /**
+     * Get an option from the user, loading only the options shown.
+     * The last visited pages are kept in a small cache.
+     * @param source - the source of the options
+     * @param lockeds - the locked options
+     * @param optionsPerPage - the max number of options per page
+     * @param selected - the default selected option
+     * @param exit - exit option message
+     * @return the selected option or -1 if no options are selected
+     */
+    public int getPageOption(OptionSource source, LockSet lockeds, int optionsPerPage, int selected, String exit) {
+        if(optionsPerPage > 0) source = Options.cached(source, optionsPerPage, 4);
+        return selectPageOption(source, lockeds, optionsPerPage, selected, exit);
+    };
+
+    /**
+     * Get a row of a table from the user, reading only the rows shown
+     * @param table - the table
+     * @return the selected row or -1 if no rows are selected
+     */
+    public int getTableRow(Table table) {
+        return getTableRow(table, 8, 0, "Sair");
+    };
+
+    /**
+     * Get a row of a table from the user, reading only the rows shown.
+     * The keys are the ones of getPageOption, and the number of a column
+     * sorts the rows by it, reversing the order when pressed again.
+     * @param table - the table
+     * @param rowsPerPage - the max number of rows per page
+     * @param selected - the default selected row
+     * @param exit - exit option message
+     * @return the selected row, in the order shown, or -1 if no rows are selected
+     */
+    public int getTableRow(Table table, int rowsPerPage, int selected, String exit) {
+        int size = table.getSource().size();
+        if(size == 0) {
             boolean confirmation = getPageConfirmation(exit);
             if(confirmation) return 0;
             else return -1;
-        } else if(lockeds != null && lockeds.length >= options.length) selected = -1;
-        else if(lockeds != null && Array.exists(lockeds, selected)) {
-            return getPageOption(options, lockeds, optionsPerPage, (selected + 1) % optionsPerPage, exit);
         };
 
+        rowsPerPage = Math.max(rowsPerPage, 1);
+        int ordinal = widgetCount++;
+        Selection selection = new Selection(size, null, rowsPerPage, restoredWidget(ordinal, selected));
+
+        begin();
         try {
-            int i = 0;
-            int page = 0;
-            int pages = 0;
+            while(true) {
+                int mark = checkpoint();
+                pushTableRows(table, selection, exit);
 
-            if(optionsPerPage > 0) {
-                page = Math.floorDiv(selected, optionsPerPage);
-                pages = Math.ceilDiv(options.length, optionsPerPage);
-            };
+                int event = event();
+                do {
+                    Key key = KeyEvent.key(event);
+                    switch (key) {
+                        case LEFT:
+                            selection.queuePages(-1);
+                            break;
+                        case RIGHT:
+                            selection.queuePages(1);
+                            break;
+                        case DOWN:
+                            selection.queue(1);
+                            break;
+                        case UP:
+                            selection.queue(-1);
+                            break;
+                        default:
+                            int current = selection.getSelected();
+                            if(key == Key.ENTER && current != -1) return current;
+                            if(key == Key.BACKSPACE) return -1;
+                            if(dispatch(event)) break;
+                            int column = KeyEvent.isCharacter(event) && KeyEvent.modifiers(event) == 0? KeyEvent.codePoint(event) - '1': -1;
+                            if(column >= 0 && column < 9 && table.sort(column)) {
+                                selection.reset(size, null, rowsPerPage, 0);
+                            };
+                            break;
+                    }
+                } while((event = pendingEvent()) != KeyEvent.NONE);
+                selection.apply();
+                restore(mark);
+            }
+        } finally {
+            saveWidget(ordinal, selection.getSelected());
+            renderer.setAnchor(-1);
+            terminal.pauseInput();
+            table.close();
+            commit();
+        }
+    };
 
-            int limit = options.length;
-            int rollbacks = limit;
+    private int selectPageOption(OptionSource options, LockSet lockeds, int optionsPerPage, int selected, String exit) {
+        if(options.size() == 0) {
+            boolean confirmation = getPageConfirmation(exit);
+            if(confirmation) return 0;
+            else return -1;
+        };
 
-            if(page >= 0 && selected >= 0 && optionsPerPage > 0) {
-                i = page * optionsPerPage;
-                limit = Math.min(i + optionsPerPage, limit);
-                rollbacks = limit - i;
-            };
-            
-            for (; i < limit; i++) {
-                if(Array.exists(lockeds, i)) {
-                    push(Text.locked("- " + options[i]), i == options.length - 1);
-                } else if(selected == i) {
-                    push(Text.highlight("> " + options[i]), i == options.length - 1);
-                } else {
-                    push("- " + options[i], i == options.length - 1);
-                };
-            };
-            
-            if(page >= 0 && optionsPerPage > 0 && limit > 0 && options.length > optionsPerPage) {
-                rollbacks += 2;
-                header((page + 1) + " / " + Math.ceilDiv(options.length, optionsPerPage));
-                push("[" + Text.highlight("LEFT") + "/" + Text.highlight("RIGHT") + "] Mudar página");
-            } else if(limit <= 0) {
-                rollbacks++;
-                push("Não há nada aqui...");
-            };
-            
-            divider();
-            push("[" + Text.highlight("UP") + "/" + Text.highlight("DOWN") + "] Escolher");
-            if(selected != -1) {
-                push("[" + Text.highlight("ENTER") + "] Confirmar");
-                rollbacks++;
-            };
-            push("[" + Text.highlight("BACKSPACE") + "] " + exit);
-
-            Key key = terminal.key();
-            switch (key) {
-                case ENTER:
-                    if (selected == -1) {
-                        rollback(3 + rollbacks);
-                        return getPageOption(options, lockeds, optionsPerPage, selected, exit);
-                    } else return selected;
-                case BACKSPACE:
-                    return -1;
-                case LEFT:
-                    rollback(3 + rollbacks);
-                    if(optionsPerPage > 0 && selected != -1) {
-                        limit = options.length;
-                        int index = Calc.mod(selected, optionsPerPage);
-                        int previous = Calc.mod(page - 1, pages) * optionsPerPage + index;
-                        previous = Math.min(previous, limit - 1);
-                        while(Array.exists(lockeds, previous)) previous = Calc.mod(previous - 1, limit);
-                        return getPageOption(options, lockeds, optionsPerPage, previous, exit);
-                    } else return getPageOption(options, lockeds, optionsPerPage, selected, exit);
-                case RIGHT:
-                    rollback(3 + rollbacks);    
-                    if(optionsPerPage > 0 && selected != -1) {
-                        limit = options.length;
-                        int index = Calc.mod(selected, optionsPerPage);
-                        int next = Calc.mod(page + 1, pages) * optionsPerPage + index;
-                        next = Math.min(next, limit - 1);
-                        while(Array.exists(lockeds, next)) next = Calc.mod(next + 1, limit);
-                        return getPageOption(options, lockeds, optionsPerPage, next, exit);
-                    } else return getPageOption(options, lockeds, optionsPerPage, selected, exit);
-                case DOWN:
-                    rollback(3 + rollbacks);
-                    if(selected >= 0) {
-                        limit = options.length;
-                        int next = Calc.mod(selected + 1, limit);
-                        while(Array.exists(lockeds, next)) next = Calc.mod(next + 1, limit);
-                        return getPageOption(options, lockeds, optionsPerPage, next, exit);
-                    } else return getPageOption(options, lockeds, optionsPerPage, -1, exit);
-                case UP:
-                    rollback(3 + rollbacks);
-                    if(selected >= 0) {
-                        limit = options.length;
-                        int previous = Calc.mod(selected - 1, limit);
-                        while(Array.exists(lockeds, previous)) previous = Calc.mod(previous - 1, limit);
-                        return getPageOption(options, lockeds, optionsPerPage, previous, exit);
-                    } else return getPageOption(options, lockeds, optionsPerPage, -1, exit);
-                default:
-                    rollback(3 + rollbacks);
-                    return getPageOption(options, lockeds, optionsPerPage, selected, exit);
+        int ordinal = widgetCount++;
+        Selection selection = new Selection(options.size(), lockeds, optionsPerPage, restoredWidget(ordinal, selected));
+        Filter filter = new Filter(options, lockeds);
+
+        begin();
+        try {
+            while(true) {
+                int mark = checkpoint();
+                pushPageOptions(filter, selection, exit);
+
+                int event = event();
+                do {
+                    Key key = KeyEvent.key(event);
+                    switch (key) {
+                        case LEFT:
+                            selection.queuePages(-1);
+                            break;
+                        case RIGHT:
+                            selection.queuePages(1);
+                            break;
+                        case DOWN:
+                            selection.queue(1);
+                            break;
+                        case UP:
+                            selection.queue(-1);
+                            break;
+                        default:
+                            // Queued moves are applied here, so the key acts on the right option
+                            int current = filter.original(selection.getSelected());
+                            if(key == Key.ENTER && current != -1) return current;
+                            if(key == Key.BACKSPACE && filter.isEmpty()) return -1;
+                            if(dispatch(event)) break;
+                            if(type(filter, event)) {
+                                int visible = Math.max(filter.visible(current), 0);
+                                selection.reset(filter.getOptions().size(), filter.getLockeds(), optionsPerPage, visible);
+                            };
+                            break;
+                    }
+                } while((event = pendingEvent()) != KeyEvent.NONE);
+                selection.apply();
+                restore(mark);
             }
-        } catch (Exception _) {
-            return getPageOption(options, lockeds, optionsPerPage, selected, exit);
+        } finally {
+            saveWidget(ordinal, filter.original(selection.getSelected()));
+            renderer.setAnchor(-1);
+            terminal.pauseInput();
+            commit();
         }
     };
+
+    private boolean type(Filter filter, int event) {
+        switch (KeyEvent.key(event)) {
+            case BACKSPACE:
+                return filter.erase();
+            case SPACE:
+                return !filter.isEmpty() && filter.type(' ');
+            case UNTRANSLATABLE:
+                int code = KeyEvent.codePoint(event);
+                if(KeyEvent.modifiers(event) != 0 || !Character.isBmpCodePoint(code) || !Filter.accepts(code)) return false;
+                return filter.type((char) code);
+            default:
+                return false;
+        }
+    };
+
+    private void pushTableRows(Table table, Selection selection, String exit) {
+        int first = selection.getFirst();
+        int limit = selection.getLimit();
+        table.load(first, limit);
+        push(fit("  " + table.header()));
+        for (int i = first; i < limit; i++) {
+            if(selection.getSelected() == i) {
+                renderer.setAnchor(lines.size());
+                push(fit(Text.highlight("> " + table.line(i))));
+            } else {
+                push(fit("- " + table.line(i)));
+            };
+        };
+
+        if(selection.hasPages()) {
+            header((selection.getPage() + 1) + " / " + selection.getPages());
+            push(CHANGE_PAGE);
+        };
+
+        divider();
+        push(CHOOSE);
+        push(CONFIRM);
+        int columns = Math.min(table.getColumnCount(), 9);
+        push("[" + Text.highlight(columns > 1? "1-" + columns: "1") + "] Ordenar");
+        push(BACKSPACE + exit);
+    };
+
+    private void pushPageOptions(Filter filter, Selection selection, String exit) {
+        OptionSource options = filter.getOptions();
+        int first = selection.getFirst();
+        int limit = selection.getLimit();
+        int last = options.size() - 1;
+        options.load(first, limit);
+        for (int i = first; i < limit; i++) {
+            if(selection.isLocked(i)) {
+                push(fit(Text.locked("- " + options.label(i))), i == last);
+            } else if(selection.getSelected() == i) {
+                renderer.setAnchor(lines.size());
+                push(fit(Text.highlight("> " + options.label(i))), i == last);
+            } else {
+                push(fit("- " + options.label(i)), i == last);
+            };
+        };
+
+        if(selection.hasPages()) {
+            header((selection.getPage() + 1) + " / " + selection.getPages());
+            push(CHANGE_PAGE);
+        } else if(limit <= 0) {
+            push("Não há nada aqui...");
+        };
+
+        divider();
+        if(!filter.isEmpty()) push("Filtro: " + Text.highlight(filter.getQuery()));
+        push(CHOOSE);
+        if(selection.getSelected() != -1) {
+            push(CONFIRM);
+        };
+        if(filter.isEmpty()) push(BACKSPACE + exit);
+        else push(ERASE);
+    };
     //#endregion
 };
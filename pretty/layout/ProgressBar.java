@@ -0,0 +1,151 @@
+package pretty.layout;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import pretty.utils.Units;
+
+/**
+ * Progress of a long task, shown by a live region of the menu with its
+ * throughput and the time left. Progress can be reported at any rate
+ * from any thread, as it only costs an increment: the line is formatted
+ * by the render scheduler, at most a few times per second.
+ */
+public class ProgressBar {
+    private static final int BAR = 20;
+    // The throughput is averaged over about two seconds of updates
+    private static final double WINDOW = 2_000_000_000.0;
+
+    private String label;
+    private volatile long total;
+    private LongAdder done = new LongAdder();
+    private long start = System.nanoTime();
+    private volatile long refreshInterval = 1_000_000_000L / 4;
+    private volatile double rate = 0;
+
+    private long lastSample = start;
+    private long lastDone = 0;
+    private long lastText = 0;
+    private long finished = 0;
+    private String text;
+    private StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Create a progress bar, shown by Menu.progress
+     * @param label - the label shown before the bar
+     * @param total - the total of steps, 0 if unknown
+     */
+    public ProgressBar(String label, long total) {
+        this.label = label;
+        this.total = total;
+    };
+
+    /**
+     * Report a step done, from any thread
+     */
+    public void step() {
+        done.increment();
+    };
+
+    /**
+     * Report steps done, from any thread
+     * @param steps - the number of steps
+     */
+    public void add(long steps) {
+        done.add(steps);
+    };
+
+    /**
+     * Set the total of steps, when it becomes known
+     * @param total - the total of steps, 0 if unknown
+     */
+    public void setTotal(long total) {
+        this.total = total;
+    };
+
+    /**
+     * Set how many times per second the line can change, 4 by default.
+     * The render scheduler may repaint less often.
+     * @param hz - the max number of changes per second
+     */
+    public void setRefreshRate(int hz) {
+        this.refreshInterval = 1_000_000_000L / Math.max(hz, 1);
+    };
+
+    /**
+     * Get the number of steps done
+     * @return the number of steps
+     */
+    public long getDone() {
+        return done.sum();
+    };
+
+    /**
+     * Get the total of steps
+     * @return the total, 0 if unknown
+     */
+    public long getTotal() {
+        return total;
+    };
+
+    /**
+     * Get the recent throughput, updated when the line is repainted
+     * @return the steps per second
+     */
+    public double getRate() {
+        return rate;
+    };
+
+    /**
+     * Get the estimated time left, from the recent throughput
+     * @return the time in nanoseconds, or -1 if unknown
+     */
+    public long getRemaining() {
+        long total = this.total;
+        double rate = this.rate;
+        if(total <= 0 || rate <= 0) return -1;
+        return (long) (Math.max(total - done.sum(), 0) / rate * 1_000_000_000L);
+    };
+
+    /**
+     * Format the line, called by the live region with the render lock held
+     * @return the line
+     */
+    String text() {
+        long now = System.nanoTime();
+        if(text != null && now - lastText < refreshInterval) return text;
+        lastText = now;
+        long done = this.done.sum();
+        long total = this.total;
+        sample(now, done);
+
+        buffer.setLength(0);
+        buffer.append(label).append(' ');
+        if(total > 0) {
+            long shown = Math.min(done, total);
+            int filled = (int) ((double) shown / total * BAR);
+            buffer.append('[');
+            for(int i = 0; i < BAR; i++) buffer.append(i < filled? '=': i == filled? '>': ' ');
+            buffer.append("] ").append((int) ((double) shown / total * 100)).append("% ");
+        } else Units.count(buffer, done).append(' ');
+        buffer.append(Text.HIGHLIGHT.getPrefix());
+        Units.count(buffer, rate).append("/s").append(Text.HIGHLIGHT.getSuffix());
+
+        if(total > 0 && done >= total) {
+            if(finished == 0) finished = now;
+            Units.duration(buffer.append(" levou "), finished - start);
+        } else if(total > 0 && rate > 0) Units.duration(buffer.append(" faltam "), getRemaining());
+        text = buffer.toString();
+        return text;
+    };
+
+    private void sample(long now, long done) {
+        long elapsed = now - lastSample;
+        if(elapsed <= 0) return;
+        double current = (done - lastDone) * 1_000_000_000.0 / elapsed;
+        // The first sample is taken as it is, so the estimate doesn't start from zero
+        if(rate == 0) rate = current;
+        else rate += (1 - Math.exp(-elapsed / WINDOW)) * (current - rate);
+        lastSample = now;
+        lastDone = done;
+    };
+};
@@ -0,0 +1,282 @@
+package pretty.layout;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import pretty.Terminal;
+import pretty.metrics.Metrics;
+import pretty.utils.MessageQueue;
+
+/**
+ * Repaints the live regions and toasts of a menu at a fixed rate, from
+ * a thread that runs while they are shown or while the menu waits for
+ * a key, to follow resizes of the terminal. While only waiting, the thread
+ * sleeps until the backend tells a resize, or checks the size once a second
+ * if the backend can't tell. Frames of the menu and repaints
+ * share a lock, so a repaint never interleaves with a frame, and only
+ * the rows of regions that changed are rewritten in place.
+ */
+public class RenderScheduler {
+    private static final long IDLE = 1_000_000_000L;
+
+    private Terminal<?> terminal;
+    private Renderer renderer;
+    private ReentrantLock lock = new ReentrantLock();
+    private ThreadFactory threadFactory = (runnable) -> {
+        Thread thread = new Thread(runnable, "pretty-render");
+        thread.setDaemon(true);
+        return thread;
+    };
+    private volatile long interval = 1_000_000_000L / 10;
+    private volatile long toastDuration = 3_000_000_000L;
+    private AtomicBoolean running = new AtomicBoolean();
+    private volatile Thread thread;
+    private volatile boolean watching = false;
+    private volatile boolean resized = false;
+    private Runnable watcher;
+
+    private LiveRegion[] regions = new LiveRegion[4];
+    private int[] lines = new int[4];
+    private int size = 0;
+    private int[] patchLines = new int[4];
+    private String[] patchTexts = new String[4];
+
+    private MessageQueue<String> messages = new MessageQueue<String>();
+    private String[] toasts = new String[3];
+    private long[] expirations = new long[3];
+    private int toastCount = 0;
+
+    /**
+     * Create a scheduler of a renderer
+     * @param terminal - the terminal the renderer writes to
+     * @param renderer - the renderer
+     */
+    public RenderScheduler(Terminal<?> terminal, Renderer renderer) {
+        this.terminal = terminal;
+        this.renderer = renderer;
+    };
+
+    /**
+     * Set the max number of repaints per second, 10 by default
+     * @param fps - the max frames per second
+     */
+    public void setMaxFrameRate(int fps) {
+        this.interval = 1_000_000_000L / Math.max(fps, 1);
+    };
+
+    /**
+     * Set how long a toast is shown, 3 seconds by default
+     * @param millis - the duration in milliseconds
+     */
+    public void setToastDuration(long millis) {
+        this.toastDuration = Math.max(millis, 0) * 1_000_000L;
+    };
+
+    /**
+     * Set the max number of toasts shown at once, 3 by default.
+     * The oldest ones are removed first.
+     * @param max - the max number of toasts
+     */
+    public void setMaxToasts(int max) {
+        lock.lock();
+        try {
+            max = Math.max(max, 1);
+            int skip = Math.max(toastCount - max, 0);
+            String[] toasts = new String[max];
+            long[] expirations = new long[max];
+            System.arraycopy(this.toasts, skip, toasts, 0, toastCount - skip);
+            System.arraycopy(this.expirations, skip, expirations, 0, toastCount - skip);
+            this.toasts = toasts;
+            this.expirations = expirations;
+            this.toastCount -= skip;
+        } finally {
+            lock.unlock();
+        }
+    };
+
+    /**
+     * Show a message as a toast, from any thread and without locks.
+     * It's drawn by the next repaint, below the input line.
+     * @param message - the message
+     */
+    public void toast(String message) {
+        messages.offer(message == null? "": message.replace('\n', ' '));
+        wake();
+    };
+
+    /**
+     * Set the factory of the thread that repaints, such as
+     * the one of a server. Must be set before regions are shown.
+     * @param threadFactory - the thread factory
+     */
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    };
+
+    /**
+     * Acquire the render lock, held while a frame is rendered
+     */
+    public void lock() {
+        lock.lock();
+    };
+
+    /**
+     * Release the render lock
+     */
+    public void unlock() {
+        lock.unlock();
+    };
+
+    /**
+     * Set what is run on each repaint while the menu waits for a key,
+     * with the render lock held. Set once, by the menu.
+     * @param watcher - the watcher
+     */
+    void setWatcher(Runnable watcher) {
+        this.watcher = watcher;
+    };
+
+    /**
+     * Start or stop running the watcher on each repaint. Stopping waits
+     * for the repaint being drawn, so the menu can draw again right after.
+     * @param watching - true while the menu waits for a key
+     */
+    void watch(boolean watching) {
+        if(watching) {
+            this.watching = true;
+            wake();
+            return;
+        };
+        lock.lock();
+        try {
+            this.watching = false;
+        } finally {
+            lock.unlock();
+        }
+    };
+
+    /**
+     * Repaint at once for a resize told by the backend, from any thread,
+     * if the menu waits for a key
+     */
+    void resized() {
+        resized = true;
+        if(watching) wake();
+    };
+
+    /**
+     * Wake the thread that repaints after the terminal
+     * stops, so it ends even if it sleeps until a resize
+     */
+    void stop() {
+        LockSupport.unpark(thread);
+    };
+
+    /**
+     * Set the regions shown by the last frame, starting the thread that
+     * repaints them if needed. Called with the render lock held.
+     * @param regions - the regions
+     * @param lines - the index of the line of each region
+     * @param size - the number of regions
+     */
+    void show(LiveRegion[] regions, int[] lines, int size) {
+        if(this.regions.length < size) {
+            this.regions = new LiveRegion[regions.length];
+            this.lines = new int[regions.length];
+            this.patchLines = new int[regions.length];
+            this.patchTexts = new String[regions.length];
+        };
+        System.arraycopy(regions, 0, this.regions, 0, size);
+        System.arraycopy(lines, 0, this.lines, 0, size);
+        for(int i = size; i < this.size; i++) this.regions[i] = null;
+        this.size = size;
+
+        if(size > 0 || toastCount > 0 || !messages.isEmpty()) wake();
+    };
+
+    private void wake() {
+        if(!running.get() && running.compareAndSet(false, true)) {
+            threadFactory.newThread(this::run).start();
+        } else LockSupport.unpark(thread);
+    };
+
+    private void run() {
+        thread = Thread.currentThread();
+        long wait = interval;
+        while(true) {
+            if(wait > 0) LockSupport.parkNanos(this, wait);
+            else LockSupport.park(this);
+            lock.lock();
+            try {
+                if(!terminal.isStarted() || terminal.isEnded()) {
+                    running.set(false);
+                    return;
+                };
+                tick();
+                if(size == 0 && toastCount == 0 && !watching) {
+                    running.set(false);
+                    // A toast offered or a wait started while stopping would wait for the next frame
+                    if((messages.isEmpty() && !watching) || !running.compareAndSet(false, true)) return;
+                };
+            } catch (RuntimeException e) {
+                // A failing supplier skips the frame, keeping the thread alive
+                Metrics.failure(e);
+            } finally {
+                // Only waiting for a key, the thread is woken by resizes and toasts
+                if(size > 0 || toastCount > 0) wait = interval;
+                else wait = terminal.isResizeSignaled()? 0: IDLE;
+                lock.unlock();
+            }
+        }
+    };
+
+    private void tick() {
+        // Run first, so a frame drawn again for a resize is patched after. Measuring the
+        // terminal can start a process, so it's done only for resizes told, if they are
+        if(watching && watcher != null && (resized || !terminal.isResizeSignaled())) {
+            resized = false;
+            watcher.run();
+        };
+        int changed = 0;
+        for(int i = 0; i < size; i++) {
+            String text = regions[i].refresh();
+            if(text == null) continue;
+            patchLines[changed] = lines[i];
+            patchTexts[changed++] = text;
+        };
+        if(changed > 0) renderer.patch(patchLines, patchTexts, changed);
+        for(int i = 0; i < changed; i++) patchTexts[i] = null;
+        if(expire() | drain()) renderer.setToasts(toasts, toastCount);
+    };
+
+    private boolean drain() {
+        String message = messages.poll();
+        if(message == null) return false;
+        long expiration = System.nanoTime() + toastDuration;
+        for(; message != null; message = messages.poll()) {
+            if(toastCount == toasts.length) {
+                System.arraycopy(toasts, 1, toasts, 0, toastCount - 1);
+                System.arraycopy(expirations, 1, expirations, 0, toastCount - 1);
+                toastCount--;
+            };
+            toasts[toastCount] = Text.highlight(">> ") + message;
+            expirations[toastCount++] = expiration;
+        };
+        return true;
+    };
+
+    private boolean expire() {
+        // Toasts expire in the order they were shown
+        long now = System.nanoTime();
+        int expired = 0;
+        while(expired < toastCount && expirations[expired] <= now) expired++;
+        if(expired == 0) return false;
+        System.arraycopy(toasts, expired, toasts, 0, toastCount - expired);
+        System.arraycopy(expirations, expired, expirations, 0, toastCount - expired);
+        for(int i = toastCount - expired; i < toastCount; i++) toasts[i] = null;
+        toastCount -= expired;
+        return true;
+    };
+};
@@ -0,0 +1,283 @@
+package pretty.layout;
+
+import java.util.ArrayList;
+
+import pretty.Terminal;
+import pretty.metrics.Metrics;
+import pretty.utils.Escape;
+import pretty.utils.Width;
+
+/**
+ * Double-buffered renderer, keeps the last frame written
+ * to the terminal and only rewrites the lines that changed.
+ * Lines wider than the terminal are broken in rows as the
+ * terminal wraps them, only the rows that fit the terminal
+ * height are drawn, and toasts are drawn over the free rows
+ * at the bottom.
+ */
+public class Renderer {
+    private Terminal<?> terminal;
+    private ArrayList<String> rows = new ArrayList<String>();
+    private ArrayList<String> front = new ArrayList<String>();
+    private ArrayList<String> back = new ArrayList<String>();
+    private StringBuilder buffer = new StringBuilder();
+    private int[] starts = new int[64];
+    private int count = 0;
+    private String[] toasts = new String[0];
+    private int toastCount = 0;
+    private int toastTop = 0;
+    private int lastWidth = 0;
+    private int lastHeight = 0;
+    private boolean valid = false;
+    private int anchor = -1;
+    private int scroll = 0;
+    private int hidden = 0;
+
+    /**
+     * Create a renderer that writes to a terminal
+     * @param terminal - the terminal to write to
+     */
+    public Renderer(Terminal<?> terminal) {
+        this.terminal = terminal;
+    };
+
+    /**
+     * Render a frame, writing only what changed since the last one
+     * @param lines - the lines of the frame
+     * @param newLine - if the last line should be end with a new line
+     */
+    public void render(Lines lines, boolean newLine) {
+        long start = Metrics.isEnabled()? System.nanoTime(): 0;
+        int width = terminal.width();
+        int height = terminal.height();
+        if(width != lastWidth || height != lastHeight) {
+            // The terminal wraps or moves the rows shown when resized, so they are all drawn again
+            lastWidth = width;
+            lastHeight = height;
+            valid = false;
+        };
+
+        int row = -1;
+        rows.clear();
+        if(starts.length < lines.size()) starts = new int[Math.max(starts.length * 2, lines.size())];
+        for(int i = 0; i < lines.size(); i++) {
+            if(i == anchor) row = rows.size();
+            starts[i] = rows.size();
+            split(lines.get(i), width);
+        };
+        count = lines.size();
+
+        // Two rows are kept free for the input line and the cursor after it, and more for toasts
+        int view = height > 0? Math.max(height - 2 - toastCount, 1): rows.size();
+        int top = Math.max(rows.size() - view, 0);
+        scroll = Math.min(scroll, top);
+        top -= scroll;
+        if(scroll == 0 && row >= 0) {
+            if(row < top) top = row;
+            else if(row >= top + view) top = row - view + 1;
+        };
+        hidden = top;
+
+        back.clear();
+        back.addAll(rows.subList(top, Math.min(top + view, rows.size())));
+        boolean fits = height <= 0 || (back.size() + 2 <= height && front.size() + 2 <= height);
+        buffer.setLength(0);
+
+        boolean full = !valid || !fits;
+        if(full) draw(newLine);
+        else diff(newLine);
+        // Both erase the rows below the frame, toasts included
+        toasts(back.size(), false);
+
+        terminal.write(buffer);
+        if(start != 0) Metrics.frame(System.nanoTime() - start, buffer, back.size(), full);
+
+        ArrayList<String> swap = front;
+        front = back;
+        back = swap;
+        valid = true;
+    };
+
+    /**
+     * Rewrite single-row lines of the last frame in place, in a single
+     * write that saves and restores the cursor, so the line being typed
+     * by the user isn't disturbed. Lines out of the view are skipped.
+     * @param lines - the indexes of the lines in the last frame
+     * @param texts - the new texts, without line breaks
+     * @param size - the number of lines to rewrite
+     * @return the number of lines rewritten
+     */
+    public int patch(int[] lines, String[] texts, int size) {
+        if(!valid || isResized()) return 0;
+        long start = Metrics.isEnabled()? System.nanoTime(): 0;
+        buffer.setLength(0);
+        int patched = 0;
+        for(int i = 0; i < size; i++) {
+            int row = rowOf(lines[i]);
+            // A patch can't add rows, so a wider text is cut to the first one
+            String text = lastWidth > 0? Width.truncate(texts[i], lastWidth): texts[i];
+            if(row < 0 || text.equals(front.get(row))) continue;
+            if(patched++ == 0) buffer.append(Escape.SAVE_CURSOR);
+            front.set(row, text);
+            Escape.moveTo(buffer, row + 1, 1).append(Escape.ERASE_LINE).append(text);
+        };
+        if(patched == 0) return 0;
+
+        buffer.append(Escape.RESTORE_CURSOR);
+        terminal.write(buffer);
+        if(start != 0) Metrics.frame(System.nanoTime() - start, buffer, patched, false);
+        return patched;
+    };
+
+    /**
+     * Set the toasts drawn at the bottom of the terminal, below the input
+     * line, drawing them at once. The next frames leave room for them.
+     * @param texts - the texts of the toasts, the newest last
+     * @param size - the number of toasts
+     */
+    public void setToasts(String[] texts, int size) {
+        if(toasts.length < size) toasts = new String[size];
+        System.arraycopy(texts, 0, toasts, 0, size);
+        for(int i = size; i < toastCount; i++) toasts[i] = null;
+        toastCount = size;
+        if(!valid) return;
+
+        buffer.setLength(0);
+        toasts(front.size(), true);
+        if(buffer.length() > 0) terminal.write(buffer);
+    };
+
+    /**
+     * Get the row where a line starts in the last frame
+     * @param line - the index of the line
+     * @return the row, starting at 0, or -1 if the line isn't in the view
+     */
+    public int rowOf(int line) {
+        if(line < 0 || line >= count) return -1;
+        int row = starts[line] - hidden;
+        return row >= 0 && row < front.size()? row: -1;
+    };
+
+    /**
+     * Check if the terminal was resized since the last frame,
+     * so the next render will redraw the whole screen
+     * @return true if resized
+     */
+    public boolean isResized() {
+        return terminal.width() != lastWidth || terminal.height() != lastHeight;
+    };
+
+    /**
+     * Forget the last frame, the next render will redraw the whole screen
+     */
+    public void invalidate() {
+        valid = false;
+    };
+
+    /**
+     * Set a line that must stay visible when the 
+     * frame is taller than the terminal
+     * @param line - the index of the line, or -1 to follow the last line
+     */
+    public void setAnchor(int line) {
+        this.anchor = line;
+    };
+
+    /**
+     * Scroll the frame, the next render shows older rows 
+     * when the frame is taller than the terminal
+     * @param rows - rows to scroll back, negative to scroll forward
+     */
+    public void scroll(int rows) {
+        scroll = Math.max(scroll + rows, 0);
+    };
+
+    /**
+     * Scroll back to the last rows of the frame
+     * @return true if the frame was scrolled
+     */
+    public boolean resetScroll() {
+        boolean scrolled = scroll > 0;
+        scroll = 0;
+        return scrolled;
+    };
+
+    /**
+     * Get the number of rows above the visible rows in the last frame
+     * @return the number of hidden rows
+     */
+    public int getHidden() {
+        return hidden;
+    };
+
+    private void toasts(int frame, boolean erase) {
+        int width = terminal.width();
+        int height = terminal.height();
+        if(height <= 0 || (toastCount == 0 && toastTop == 0)) return;
+
+        // The free rows start below the input line, the newest toasts are kept
+        int free = frame + 2;
+        int top = Math.max(height - toastCount + 1, free);
+        buffer.append(Escape.SAVE_CURSOR);
+        if(erase && toastTop > 0) {
+            for(int row = Math.max(toastTop, free); row < top; row++) {
+                Escape.moveTo(buffer, row, 1).append(Escape.ERASE_LINE);
+            };
+        };
+        for(int row = top, i = toastCount - (height - top + 1); row <= height; row++, i++) {
+            // A wrapped toast would scroll the screen
+            String toast = width > 0? Width.truncate(toasts[i], width): toasts[i];
+            Escape.moveTo(buffer, row, 1).append(Escape.ERASE_LINE).append(toast);
+        };
+        buffer.append(Escape.RESTORE_CURSOR);
+        toastTop = toastCount > 0 && top <= height? top: 0;
+    };
+
+    private void split(String line, int width) {
+        int start = 0;
+        int end = line.indexOf('\n');
+        while(end != -1) {
+            wrap(line.substring(start, end), width);
+            start = end + 1;
+            end = line.indexOf('\n', start);
+        };
+        wrap(start == 0? line: line.substring(start), width);
+    };
+
+    private void wrap(String row, int width) {
+        // The terminal wraps the columns past its width, so they are rows of their own
+        while(width > 0 && Width.of(row) > width) {
+            int cut = Width.cut(row, width);
+            if(cut == 0) cut = Character.charCount(row.codePointAt(0));
+            rows.add(row.substring(0, cut));
+            row = row.substring(cut);
+        };
+        rows.add(row);
+    };
+
+    private void draw(boolean newLine) {
+        if(terminal.isProcessClear()) terminal.clear();
+        else buffer.append(Escape.CLEAR);
+        for(int i = 0; i < back.size(); i++) {
+            buffer.append(back.get(i));
+            if(i < back.size() - 1 || newLine) buffer.append('\n');
+        };
+    };
+
+    private void diff(boolean newLine) {
+        int rows = back.size();
+        int changed = newLine? rows: rows - 1;
+
+        for(int i = 0; i < changed; i++) {
+            String line = back.get(i);
+            if(i < front.size() && line.equals(front.get(i))) continue;
+            Escape.moveTo(buffer, i + 1, 1).append(Escape.ERASE_LINE).append(line);
+        };
+
+        Escape.moveTo(buffer, rows + 1, 1).append(Escape.ERASE_BELOW);
+        if(!newLine && rows > 0) {
+            // The cursor must stay at the end of the last line, so it is always rewritten
+            Escape.moveTo(buffer, rows, 1).append(Escape.ERASE_LINE).append(back.get(rows - 1));
+        };
+    };
+};
@@ -0,0 +1,220 @@
+package pretty.layout;
+
+import pretty.utils.Calc;
+import pretty.utils.LockSet;
+
+/**
+ * Selection state of an option list, used by the option widgets of Menu.
+ * Holds the selected option and the current page, and can be reused.
+ */
+public class Selection {
+    private int size = 0;
+    private int optionsPerPage = 0;
+    private int selected = -1;
+    private LockSet lockeds = new LockSet();
+    private int queuedSteps = 0;
+    private int queuedPages = 0;
+
+    /**
+     * Create an empty selection
+     */
+    public Selection() {};
+
+    /**
+     * Create a selection
+     * @param size - the number of options
+     * @param lockeds - the locked options, can be null
+     * @param optionsPerPage - the max number of options per page, 0 to disable pages
+     * @param selected - the default selected option, -1 for none
+     */
+    public Selection(int size, LockSet lockeds, int optionsPerPage, int selected) {
+        assign(size, lockeds, optionsPerPage, selected);
+    };
+
+    /**
+     * Reset the selection to a new option list. If the default
+     * selected option is locked, the next unlocked one is selected.
+     * @param size - the number of options
+     * @param lockeds - the locked options, can be null
+     * @param optionsPerPage - the max number of options per page, 0 to disable pages
+     * @param selected - the default selected option, -1 for none
+     */
+    public void reset(int size, LockSet lockeds, int optionsPerPage, int selected) {
+        assign(size, lockeds, optionsPerPage, selected);
+    };
+
+    /**
+     * Get the selected option
+     * @return the selected option, or -1 if none
+     */
+    public int getSelected() {
+        apply();
+        return selected;
+    };
+
+    /**
+     * Get the number of options
+     * @return the number of options
+     */
+    public int getSize() {
+        return size;
+    };
+
+    /**
+     * Get the current page
+     * @return the current page, starting at 0
+     */
+    public int getPage() {
+        if(!isPaged()) return 0;
+        return Math.floorDiv(selected, optionsPerPage);
+    };
+
+    /**
+     * Get the number of pages
+     * @return the number of pages
+     */
+    public int getPages() {
+        if(!isPaged()) return 1;
+        return Math.ceilDiv(size, optionsPerPage);
+    };
+
+    /**
+     * Check if the options are split in more than one page
+     * @return true if there is more than one page
+     */
+    public boolean hasPages() {
+        return isPaged() && size > optionsPerPage;
+    };
+
+    /**
+     * Get the first visible option
+     * @return the index of the first visible option
+     */
+    public int getFirst() {
+        return getPage() * optionsPerPage;
+    };
+
+    /**
+     * Get the end of the visible options
+     * @return the index after the last visible option
+     */
+    public int getLimit() {
+        if(!isPaged()) return size;
+        return Math.min(getFirst() + optionsPerPage, size);
+    };
+
+    /**
+     * Check if an option is locked
+     * @param index - the option
+     * @return true if the option is locked
+     */
+    public boolean isLocked(int index) {
+        return lockeds.isLocked(index);
+    };
+
+    /**
+     * Select the next unlocked option
+     */
+    public void next() {
+        if(selected < 0) return;
+        selected = lockeds.nextUnlocked(selected + 1, size);
+    };
+
+    /**
+     * Select the previous unlocked option
+     */
+    public void previous() {
+        if(selected < 0) return;
+        selected = lockeds.previousUnlocked(selected - 1, size);
+    };
+
+    /**
+     * Move the selection by a number of unlocked options, 
+     * so many key presses can be applied at once
+     * @param steps - options to move, negative to move back
+     */
+    public void move(int steps) {
+        if(selected < 0 || steps == 0) return;
+        steps %= size - lockeds.count(size);
+        for(; steps > 0; steps--) next();
+        for(; steps < 0; steps++) previous();
+    };
+
+    /**
+     * Move the selection by a number of pages,
+     * so many key presses can be applied at once
+     * @param pages - pages to move, negative to move back
+     */
+    public void movePages(int pages) {
+        if(!isPaged() || pages == 0) return;
+        pages %= getPages();
+        for(; pages > 0; pages--) nextPage();
+        for(; pages < 0; pages++) previousPage();
+    };
+
+    /**
+     * Queue a move by a number of unlocked options, 
+     * applied with the other queued moves by apply
+     * @param steps - options to move, negative to move back
+     */
+    public void queue(int steps) {
+        if(queuedPages != 0) apply();
+        queuedSteps += steps;
+    };
+
+    /**
+     * Queue a move by a number of pages, 
+     * applied with the other queued moves by apply
+     * @param pages - pages to move, negative to move back
+     */
+    public void queuePages(int pages) {
+        if(queuedSteps != 0) apply();
+        queuedPages += pages;
+    };
+
+    /**
+     * Apply the queued moves. Consecutive moves of the same kind
+     * are folded in a single one, keeping the order of the keys.
+     */
+    public void apply() {
+        move(queuedSteps);
+        movePages(queuedPages);
+        queuedSteps = 0;
+        queuedPages = 0;
+    };
+
+    /**
+     * Select the option at the same position in the next page
+     */
+    public void nextPage() {
+        if(!isPaged()) return;
+        int index = Calc.mod(selected, optionsPerPage);
+        selected = Math.min(Calc.mod(getPage() + 1, getPages()) * optionsPerPage + index, size - 1);
+        selected = lockeds.nextUnlocked(selected, size);
+    };
+
+    /**
+     * Select the option at the same position in the previous page
+     */
+    public void previousPage() {
+        if(!isPaged()) return;
+        int index = Calc.mod(selected, optionsPerPage);
+        selected = Math.min(Calc.mod(getPage() - 1, getPages()) * optionsPerPage + index, size - 1);
+        selected = lockeds.previousUnlocked(selected, size);
+    };
+
+    private void assign(int size, LockSet lockeds, int optionsPerPage, int selected) {
+        this.size = size;
+        this.lockeds = lockeds != null? lockeds: new LockSet();
+        this.optionsPerPage = Math.max(optionsPerPage, 0);
+        this.queuedSteps = 0;
+        this.queuedPages = 0;
+
+        if(size <= 0 || selected < 0) this.selected = -1;
+        else this.selected = this.lockeds.nextUnlocked(Math.min(selected, size - 1), size);
+    };
+
+    private boolean isPaged() {
+        return selected >= 0 && optionsPerPage > 0;
+    };
+};
@@ -0,0 +1,90 @@
+package pretty.layout;
+
+import pretty.utils.Units;
+
+/**
+ * Activity of a task without a known end, shown by a live region of
+ * the menu as a spinning mark, a label and the time since it started.
+ * The label can be changed from any thread, and the frames are formatted
+ * by the render scheduler, at most a few times per second.
+ */
+public class Spinner {
+    private static final String FRAMES = "|/-\\";
+
+    private volatile String label;
+    private volatile String result;
+    private long start = System.nanoTime();
+    private volatile long refreshInterval = 1_000_000_000L / 8;
+
+    private long lastText = 0;
+    private String text;
+    private StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Create a spinner, shown by Menu.spinner
+     * @param label - the label shown after the mark
+     */
+    public Spinner(String label) {
+        this.label = label;
+    };
+
+    /**
+     * Change the label, from any thread
+     * @param label - the label
+     */
+    public void setLabel(String label) {
+        this.label = label;
+    };
+
+    /**
+     * Stop spinning, showing the task as done
+     * @param message - the message shown instead of the label
+     */
+    public void finish(String message) {
+        this.result = Text.success("+ ") + message;
+    };
+
+    /**
+     * Stop spinning, showing the task as failed
+     * @param message - the message shown instead of the label
+     */
+    public void fail(String message) {
+        this.result = Text.warning(">> " + message);
+    };
+
+    /**
+     * Set how many times per second the mark turns, 8 by default.
+     * The render scheduler may repaint less often.
+     * @param hz - the max number of frames per second
+     */
+    public void setRefreshRate(int hz) {
+        this.refreshInterval = 1_000_000_000L / Math.max(hz, 1);
+    };
+
+    /**
+     * Check if the spinner was stopped by finish or fail
+     * @return true if stopped
+     */
+    public boolean isStopped() {
+        return result != null;
+    };
+
+    /**
+     * Format the line, called by the live region with the render lock held
+     * @return the line
+     */
+    String text() {
+        String result = this.result;
+        if(result != null) return result;
+        long now = System.nanoTime();
+        if(text != null && now - lastText < refreshInterval) return text;
+        lastText = now;
+
+        int frame = (int) ((now - start) / refreshInterval % FRAMES.length());
+        buffer.setLength(0);
+        buffer.append(Text.HIGHLIGHT.getPrefix()).append(FRAMES.charAt(frame)).append(Text.HIGHLIGHT.getSuffix());
+        Units.duration(buffer.append(' ').append(label).append(' '), now - start);
+        text = buffer.toString();
+        return text;
+    };
+};
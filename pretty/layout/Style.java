@@ -0,0 +1,84 @@
+package pretty.layout;
+
+import com.diogonunes.jcolor.Ansi;
+import com.diogonunes.jcolor.Attribute;
+
+/**
+ * A text style compiled once into the escape sequences 
+ * written before and after the styled text
+ */
+public class Style {
+    private final String prefix;
+    private final String suffix;
+
+    /**
+     * Compile a style from attributes
+     * @param attributes - the attributes of the style
+     */
+    public Style(Attribute... attributes) {
+        this.prefix = Ansi.generateCode(attributes);
+        this.suffix = Ansi.RESET;
+    };
+
+    /**
+     * Get the sequence written before the styled text
+     * @return the prefix
+     */
+    public String getPrefix() {
+        return prefix;
+    };
+
+    /**
+     * Get the sequence written after the styled text
+     * @return the suffix
+     */
+    public String getSuffix() {
+        return suffix;
+    };
+
+    /**
+     * Format a text with the style, each line is styled separately
+     * @param text - the text
+     * @return the formatted text
+     */
+    public String format(CharSequence text) {
+        StringBuilder buffer = new StringBuilder(prefix.length() + text.length() + suffix.length());
+        return append(buffer, text).toString();
+    };
+
+    /**
+     * Append a text with the style to a buffer, each line is styled separately
+     * @param buffer - the buffer
+     * @param text - the text
+     * @return the same buffer
+     */
+    public StringBuilder append(StringBuilder buffer, CharSequence text) {
+        buffer.append(prefix);
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c == '\n') buffer.append(suffix).append(c).append(prefix);
+            else buffer.append(c);
+        };
+        return buffer.append(suffix);
+    };
+
+    /**
+     * Append a character with the style to a buffer
+     * @param buffer - the buffer
+     * @param character - the character
+     * @return the same buffer
+     */
+    public StringBuilder append(StringBuilder buffer, char character) {
+        return buffer.append(prefix).append(character).append(suffix);
+    };
+
+    /**
+     * Append a number with the style to a buffer
+     * @param buffer - the buffer
+     * @param number - the number
+     * @return the same buffer
+     */
+    public StringBuilder append(StringBuilder buffer, long number) {
+        return buffer.append(prefix).append(number).append(suffix);
+    };
+};
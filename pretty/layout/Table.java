@@ -0,0 +1,289 @@
+package pretty.layout;
+
+import java.util.Iterator;
+
+import pretty.interfaces.Formatter;
+import pretty.interfaces.RowSource;
+import pretty.utils.Width;
+
+/**
+ * Table of rows read through a cursor, shown by Menu.getTableRow.
+ * Only the rows of the page shown are kept and formatted, and the
+ * widths of the columns come from a bounded sample of the first rows,
+ * growing with the pages shown, so the whole data is never scanned.
+ */
+public class Table {
+    private static final String SEPARATOR = "  ";
+
+    private RowSource source;
+    private String[] columns;
+    private Formatter<Object, String>[] formatters;
+    private int[] widths;
+    private boolean[] numerics;
+    private int sample = 64;
+    private int maxWidth = 24;
+    private int sorted = -1;
+    private boolean ascending = true;
+
+    private Iterator<Object[]> cursor;
+    private int position = -1;
+    private Object[][] page = new Object[0][];
+    private String[] lines = new String[0];
+    private int pageFrom = -1;
+    private int pageTo = -1;
+    private int pageSize = 0;
+    private StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Create a table
+     * @param source - the source of the rows
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Table(RowSource source) {
+        this.source = source;
+        this.columns = source.columns();
+        this.formatters = new Formatter[columns.length];
+    };
+
+    /**
+     * Set how many of the first rows are read to compute
+     * the widths of the columns, 64 by default
+     * @param rows - the number of rows
+     */
+    public void setSampleSize(int rows) {
+        this.sample = Math.max(rows, 0);
+        this.widths = null;
+        invalidate();
+    };
+
+    /**
+     * Set the max width of a column, longer values are truncated
+     * @param width - the max number of columns, 24 by default
+     */
+    public void setMaxColumnWidth(int width) {
+        this.maxWidth = Math.max(width, 2);
+        this.widths = null;
+        invalidate();
+    };
+
+    /**
+     * Set how the values of a column are shown, by default as their text
+     * @param column - the index of the column
+     * @param formatter - the formatter
+     */
+    public void setFormatter(int column, Formatter<Object, String> formatter) {
+        this.formatters[column] = formatter;
+        this.widths = null;
+        invalidate();
+    };
+
+    /**
+     * Get the source of the rows
+     * @return the source
+     */
+    public RowSource getSource() {
+        return source;
+    };
+
+    /**
+     * Get the values of a row, read again
+     * from the source if not in the page shown
+     * @param index - the index of the row, in the current order
+     * @return the values, or null if there is no such row
+     */
+    public Object[] getRow(int index) {
+        if(index >= pageFrom && index < pageFrom + pageSize) return page[index - pageFrom];
+        Iterator<Object[]> rows = open(index);
+        try {
+            return rows.hasNext()? rows.next(): null;
+        } finally {
+            close(rows);
+        }
+    };
+
+    /**
+     * Sort the rows by a column, reversing the order
+     * if the rows are already sorted by it
+     * @param column - the index of the column
+     * @return false if the source can't be sorted by the column
+     */
+    public boolean sort(int column) {
+        if(column < 0 || column >= columns.length) return false;
+        boolean ascending = column != sorted || !this.ascending;
+        close();
+        if(!source.sort(column, ascending)) return false;
+        this.sorted = column;
+        this.ascending = ascending;
+        invalidate();
+        return true;
+    };
+
+    /**
+     * Get the column the rows are sorted by
+     * @return the index of the column, or -1 if not sorted
+     */
+    public int getSortedColumn() {
+        return sorted;
+    };
+
+    /**
+     * Check if the rows are sorted in ascending order
+     * @return true if ascending
+     */
+    public boolean isAscending() {
+        return ascending;
+    };
+
+    /**
+     * Get the number of columns
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return columns.length;
+    };
+
+    /**
+     * Close the cursor left open, called when the table isn't shown anymore
+     */
+    public void close() {
+        close(cursor);
+        cursor = null;
+        position = -1;
+    };
+
+    //#region Page
+    /**
+     * Read and format the rows of a page, reusing the open
+     * cursor when the page follows the last one read
+     * @param from - the first row, included
+     * @param to - the last row, excluded
+     */
+    void load(int from, int to) {
+        if(widths == null) measure();
+        if(from == pageFrom && to == pageTo) return;
+        int size = Math.max(to - from, 0);
+        if(page.length < size) {
+            page = new Object[size][];
+            lines = new String[size];
+        };
+
+        if(cursor == null || position != from) {
+            close();
+            cursor = open(from);
+            position = from;
+        };
+        pageFrom = from;
+        pageTo = to;
+        pageSize = 0;
+        while(pageSize < size && cursor.hasNext()) {
+            page[pageSize++] = cursor.next();
+            position++;
+        };
+        for(int i = pageSize; i < page.length; i++) page[i] = null;
+
+        // The widths only grow, so the columns don't move back and forth between pages
+        for(int i = 0; i < pageSize; i++) {
+            for(int column = 0; column < columns.length; column++) {
+                widths[column] = Math.min(Math.max(widths[column], Width.of(text(page[i], column))), maxWidth);
+            };
+        };
+        for(int i = 0; i < pageSize; i++) lines[i] = format(page[i]);
+    };
+
+    /**
+     * Get a formatted row of the page read
+     * @param index - the index of the row
+     * @return the row, or an empty line if not read
+     */
+    String line(int index) {
+        if(index < pageFrom || index >= pageFrom + pageSize) return "";
+        return lines[index - pageFrom];
+    };
+
+    /**
+     * Get the formatted names of the columns,
+     * marking the column the rows are sorted by
+     * @return the names
+     */
+    String header() {
+        if(widths == null) measure();
+        buffer.setLength(0);
+        for(int column = 0; column < columns.length; column++) {
+            if(column > 0) buffer.append(SEPARATOR);
+            String name = columns[column];
+            if(column == sorted) name += ascending? " ^": " v";
+            Width.append(buffer, name, widths[column], numerics[column]);
+        };
+        return Text.highlight(trim());
+    };
+    //#endregion
+
+    //#region Private
+    private void measure() {
+        widths = new int[columns.length];
+        numerics = new boolean[columns.length];
+        for(int column = 0; column < columns.length; column++) {
+            // Room for the mark of the sorted column
+            widths[column] = Math.min(Width.of(columns[column]) + 2, maxWidth);
+        };
+
+        Iterator<Object[]> rows = open(0);
+        try {
+            boolean[] seen = new boolean[columns.length];
+            for(int i = 0; i < sample && rows.hasNext(); i++) {
+                Object[] row = rows.next();
+                for(int column = 0; column < columns.length; column++) {
+                    Object value = column < row.length? row[column]: null;
+                    if(!seen[column] && value != null) {
+                        seen[column] = true;
+                        numerics[column] = value instanceof Number;
+                    };
+                    widths[column] = Math.min(Math.max(widths[column], Width.of(text(row, column))), maxWidth);
+                };
+            };
+        } finally {
+            close(rows);
+        }
+    };
+
+    private String format(Object[] row) {
+        buffer.setLength(0);
+        for(int column = 0; column < columns.length; column++) {
+            if(column > 0) buffer.append(SEPARATOR);
+            Width.append(buffer, text(row, column), widths[column], numerics[column]);
+        };
+        return trim();
+    };
+
+    private String trim() {
+        int end = buffer.length();
+        while(end > 0 && buffer.charAt(end - 1) == ' ') end--;
+        return buffer.substring(0, end);
+    };
+
+    private String text(Object[] row, int column) {
+        Object value = column < row.length? row[column]: null;
+        Formatter<Object, String> formatter = formatters[column];
+        String text = formatter != null? formatter.format(value): value == null? "": value.toString();
+        return text.indexOf('\n') < 0? text: text.replace('\n', ' ');
+    };
+
+    private Iterator<Object[]> open(int from) {
+        return source.rows(Math.max(from, 0));
+    };
+
+    private void close(Iterator<Object[]> rows) {
+        if(rows instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception _) {}
+        };
+    };
+
+    private void invalidate() {
+        pageFrom = -1;
+        pageTo = -1;
+        pageSize = 0;
+    };
+    //#endregion
+};
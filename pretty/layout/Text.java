@@ -1,19 +1,43 @@
 package pretty.layout;
 
-import com.diogonunes.jcolor.AnsiFormat;
 import static com.diogonunes.jcolor.Attribute.*;
 
 /**
  * Text class to format text in the console
  */
 public class Text {
+    /**
+     * Red text
+     */
+    public static final Style WARNING = new Style(BRIGHT_RED_TEXT());
+
+    /**
+     * Green text
+     */
+    public static final Style SUCCESS = new Style(BRIGHT_GREEN_TEXT());
+
+    /**
+     * Blue and bold text
+     */
+    public static final Style HEADER = new Style(BRIGHT_BLUE_TEXT(), BOLD());
+
+    /**
+     * Gray text
+     */
+    public static final Style LOCKED = new Style(DESATURATED(), BLACK_TEXT());
+
+    /**
+     * Blue text
+     */
+    public static final Style HIGHLIGHT = new Style(BRIGHT_BLUE_TEXT());
+
     /**
      * Returns the message in red
      * @param message - the message
      * @return the formatted message
      */
     public static String warning(String message) {
-        return new AnsiFormat(BRIGHT_RED_TEXT()).format(message);
+        return WARNING.format(message);
     };
 
     /**
@@ -22,7 +46,7 @@ public class Text {
      * @return the formatted message
      */
     public static String success(String message) {
-        return new AnsiFormat(BRIGHT_GREEN_TEXT()).format(message);
+        return SUCCESS.format(message);
     };
 
     /**
@@ -31,7 +55,7 @@ public class Text {
      * @return the formatted message
      */
     public static String header(String message) {
-        return new AnsiFormat(BRIGHT_BLUE_TEXT(), BOLD()).format(message);
+        return HEADER.format(message);
     };
 
     /**
@@ -40,7 +64,7 @@ public class Text {
      * @return the formatted message
      */
     public static String locked(String message) {
-        return new AnsiFormat(DESATURATED(), BLACK_TEXT()).format(message.toString());
+        return LOCKED.format(message);
     };
 
     /**
@@ -50,7 +74,7 @@ public class Text {
      * @return the formatted number as string
      */
     public static <T extends Number> String highlight(T number) {
-        return new AnsiFormat(BRIGHT_BLUE_TEXT()).format(number.toString());
+        return HIGHLIGHT.format(number.toString());
     };
 
     /**
@@ -59,7 +83,7 @@ public class Text {
      * @return the formatted message
      */
     public static String highlight(String message) {
-        return new AnsiFormat(BRIGHT_BLUE_TEXT()).format(message.toString());
+        return HIGHLIGHT.format(message);
     };
 
     /**
@@ -68,6 +92,6 @@ public class Text {
      * @return the formatted character as string
      */
     public static String highlight(char character) {
-        return new AnsiFormat(BRIGHT_BLUE_TEXT()).format(Character.toString(character));
+        return HIGHLIGHT.append(new StringBuilder(16), character).toString();
     };
 }
@@ -0,0 +1,32 @@
+package pretty.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of a frame written to the terminal
+ */
+@Name("pretty.Frame")
+@Label("Frame")
+@Category("JPretty")
+@Description("A frame rendered to the terminal")
+public class FrameEvent extends jdk.jfr.Event {
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long renderTime;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+
+    @Label("Full")
+    @Description("If the screen was cleared and the whole frame redrawn")
+    public boolean full;
+};
@@ -0,0 +1,149 @@
+package pretty.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds, with a bucket for 
+ * each power of two. Percentiles are the upper bound of their bucket,
+ * limited to the max value.
+ */
+public class Histogram {
+    private AtomicLongArray buckets = new AtomicLongArray(64);
+    private LongAdder count = new LongAdder();
+    private LongAdder sum = new LongAdder();
+    private LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a value
+     * @param value - the value, in nanoseconds
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value) - (value == 0? 0: 1));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    };
+
+    /**
+     * Forget all recorded values
+     */
+    public void reset() {
+        for(int i = 0; i < 64; i++) buckets.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+    };
+
+    /**
+     * Get a summary of the recorded values
+     * @return the summary
+     */
+    public Summary summary() {
+        long[] counts = new long[64];
+        long total = 0;
+        for(int i = 0; i < 64; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        };
+        long max = this.max.get();
+        return new Summary(
+            total, 
+            total == 0? 0: sum.sum() / total, 
+            max,
+            Math.min(percentile(counts, total, 0.5), max),
+            Math.min(percentile(counts, total, 0.9), max),
+            Math.min(percentile(counts, total, 0.99), max)
+        );
+    };
+
+    private static long percentile(long[] counts, long total, double percentile) {
+        if(total == 0) return 0;
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for(int i = 0; i < 64; i++) {
+            seen += counts[i];
+            if(seen >= target) return i >= 62? Long.MAX_VALUE: (2L << i) - 1;
+        };
+        return Long.MAX_VALUE;
+    };
+
+    /**
+     * Immutable summary of a histogram
+     */
+    public static class Summary {
+        private long count;
+        private long mean;
+        private long max;
+        private long p50;
+        private long p90;
+        private long p99;
+
+        private Summary(long count, long mean, long max, long p50, long p90, long p99) {
+            this.count = count;
+            this.mean = mean;
+            this.max = max;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+        };
+
+        /**
+         * Get the number of recorded values
+         * @return the count
+         */
+        public long getCount() {
+            return count;
+        };
+
+        /**
+         * Get the mean of the recorded values
+         * @return the mean, in nanoseconds
+         */
+        public long getMean() {
+            return mean;
+        };
+
+        /**
+         * Get the max recorded value
+         * @return the max, in nanoseconds
+         */
+        public long getMax() {
+            return max;
+        };
+
+        /**
+         * Get the median, rounded up to its bucket
+         * @return the median, in nanoseconds
+         */
+        public long getP50() {
+            return p50;
+        };
+
+        /**
+         * Get the 90th percentile, rounded up to its bucket
+         * @return the percentile, in nanoseconds
+         */
+        public long getP90() {
+            return p90;
+        };
+
+        /**
+         * Get the 99th percentile, rounded up to its bucket
+         * @return the percentile, in nanoseconds
+         */
+        public long getP99() {
+            return p99;
+        };
+
+        @Override
+        public String toString() {
+            return String.format(
+                "count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms",
+                count, mean / 1e6, p50 / 1e6, p90 / 1e6, p99 / 1e6, max / 1e6
+            );
+        };
+    };
+};
@@ -0,0 +1,18 @@
+package pretty.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of an invalid input asked again
+ */
+@Name("pretty.InputRetry")
+@Label("Input Retry")
+@Category("JPretty")
+@Description("An invalid input that was asked again")
+public class InputRetryEvent extends jdk.jfr.Event {
+    @Label("Message")
+    public String message;
+};
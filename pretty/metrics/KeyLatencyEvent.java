@@ -0,0 +1,20 @@
+package pretty.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of the time between a key and the frame that shows it
+ */
+@Name("pretty.KeyLatency")
+@Label("Key Latency")
+@Category("JPretty")
+@Description("Time between a key arriving and the frame that reflects it")
+public class KeyLatencyEvent extends jdk.jfr.Event {
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    public long latency;
+};
@@ -0,0 +1,297 @@
+package pretty.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms of rendering and input, also emitted as JFR
+ * events. Disabled by default, when nothing is measured and the only
+ * cost is reading a flag. Values are read through snapshots.
+ */
+public class Metrics {
+    private static volatile boolean enabled = false;
+
+    private static LongAdder frames = new LongAdder();
+    private static LongAdder clears = new LongAdder();
+    private static LongAdder bytes = new LongAdder();
+    private static LongAdder keys = new LongAdder();
+    private static LongAdder retries = new LongAdder();
+    private static LongAdder failures = new LongAdder();
+    private static Histogram frameTime = new Histogram();
+    private static Histogram keyLatency = new Histogram();
+    private static ConcurrentHashMap<String, Histogram> pages = new ConcurrentHashMap<>();
+
+    private Metrics() {};
+
+    /**
+     * Check if metrics are being recorded
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    };
+
+    /**
+     * Set if metrics should be recorded
+     * @param enabled - true to record metrics
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    };
+
+    /**
+     * Forget all recorded metrics
+     */
+    public static void reset() {
+        frames.reset();
+        clears.reset();
+        bytes.reset();
+        keys.reset();
+        retries.reset();
+        failures.reset();
+        frameTime.reset();
+        keyLatency.reset();
+        pages.clear();
+    };
+
+    /**
+     * Record a frame written to the terminal
+     * @param duration - the time to build and write the frame, in nanoseconds
+     * @param output - the text written
+     * @param rows - the number of visible rows
+     * @param full - if the screen was cleared and the whole frame redrawn
+     */
+    public static void frame(long duration, CharSequence output, int rows, boolean full) {
+        if(!enabled) return;
+        long size = utf8Length(output);
+        frames.increment();
+        if(full) clears.increment();
+        bytes.add(size);
+        frameTime.record(duration);
+
+        FrameEvent event = new FrameEvent();
+        if(event.shouldCommit()) {
+            event.renderTime = duration;
+            event.rows = rows;
+            event.bytes = size;
+            event.full = full;
+            event.commit();
+        };
+    };
+
+    /**
+     * Record the time between a key arriving and the frame that reflects it
+     * @param latency - the latency, in nanoseconds
+     */
+    public static void keyToPaint(long latency) {
+        if(!enabled) return;
+        keys.increment();
+        keyLatency.record(latency);
+
+        KeyLatencyEvent event = new KeyLatencyEvent();
+        if(event.shouldCommit()) {
+            event.latency = latency;
+            event.commit();
+        };
+    };
+
+    /**
+     * Record an invalid input that was asked again
+     * @param message - the message shown to the user, can be null
+     */
+    public static void retry(String message) {
+        if(!enabled) return;
+        retries.increment();
+
+        InputRetryEvent event = new InputRetryEvent();
+        if(event.shouldCommit()) {
+            event.message = message;
+            event.commit();
+        };
+    };
+
+    /**
+     * Record a repaint of live regions skipped because one failed,
+     * such as a supplier that threw
+     * @param error - the error
+     */
+    public static void failure(Throwable error) {
+        if(!enabled) return;
+        failures.increment();
+
+        RepaintFailureEvent event = new RepaintFailureEvent();
+        if(event.shouldCommit()) {
+            event.error = error.toString();
+            event.commit();
+        };
+    };
+
+    /**
+     * Record a page rendered by the router
+     * @param page - the class of the page
+     * @param duration - the time to render the page without waiting for input, in nanoseconds
+     */
+    public static void page(Class<?> page, long duration) {
+        if(!enabled) return;
+        String name = page.getName();
+        pages.computeIfAbsent(name, (_) -> new Histogram()).record(duration);
+
+        PageRenderEvent event = new PageRenderEvent();
+        if(event.shouldCommit()) {
+            event.page = name;
+            event.renderTime = duration;
+            event.commit();
+        };
+    };
+
+    /**
+     * Take a snapshot of the recorded metrics
+     * @return the snapshot
+     */
+    public static Snapshot snapshot() {
+        Map<String, Histogram.Summary> summaries = new TreeMap<>();
+        for(Map.Entry<String, Histogram> entry : pages.entrySet()) {
+            summaries.put(entry.getKey(), entry.getValue().summary());
+        };
+        return new Snapshot(
+            frames.sum(), clears.sum(), bytes.sum(), keys.sum(), retries.sum(), failures.sum(),
+            frameTime.summary(), keyLatency.summary(), summaries
+        );
+    };
+
+    private static long utf8Length(CharSequence text) {
+        long length = text.length();
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c < 0x80) continue;
+            if(c < 0x800) length += 1;
+            else if(Character.isHighSurrogate(c)) {
+                length += 2;
+                i++;
+            } else length += 2;
+        };
+        return length;
+    };
+
+    /**
+     * Immutable snapshot of the metrics
+     */
+    public static class Snapshot {
+        private long frames;
+        private long clears;
+        private long bytes;
+        private long keys;
+        private long retries;
+        private long failures;
+        private Histogram.Summary frameTime;
+        private Histogram.Summary keyLatency;
+        private Map<String, Histogram.Summary> pages;
+
+        private Snapshot(
+            long frames, long clears, long bytes, long keys, long retries, long failures,
+            Histogram.Summary frameTime, Histogram.Summary keyLatency, 
+            Map<String, Histogram.Summary> pages
+        ) {
+            this.frames = frames;
+            this.clears = clears;
+            this.bytes = bytes;
+            this.keys = keys;
+            this.retries = retries;
+            this.failures = failures;
+            this.frameTime = frameTime;
+            this.keyLatency = keyLatency;
+            this.pages = Map.copyOf(pages);
+        };
+
+        /**
+         * Get the number of frames written
+         * @return the number of frames
+         */
+        public long getFrames() {
+            return frames;
+        };
+
+        /**
+         * Get the number of frames that cleared the screen
+         * @return the number of clears
+         */
+        public long getClears() {
+            return clears;
+        };
+
+        /**
+         * Get the number of bytes written, encoded in UTF-8
+         * @return the number of bytes
+         */
+        public long getBytes() {
+            return bytes;
+        };
+
+        /**
+         * Get the number of keys that were painted
+         * @return the number of keys
+         */
+        public long getKeys() {
+            return keys;
+        };
+
+        /**
+         * Get the number of invalid inputs asked again
+         * @return the number of retries
+         */
+        public long getRetries() {
+            return retries;
+        };
+
+        /**
+         * Get the number of repaints of live regions that failed
+         * @return the number of failures
+         */
+        public long getFailures() {
+            return failures;
+        };
+
+        /**
+         * Get the durations of the frames
+         * @return the summary of the durations
+         */
+        public Histogram.Summary getFrameTime() {
+            return frameTime;
+        };
+
+        /**
+         * Get the latencies between keys and the frames that reflect them
+         * @return the summary of the latencies
+         */
+        public Histogram.Summary getKeyLatency() {
+            return keyLatency;
+        };
+
+        /**
+         * Get the render durations of each page, by class name
+         * @return the summaries of the durations
+         */
+        public Map<String, Histogram.Summary> getPages() {
+            return pages;
+        };
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append("frames=").append(frames)
+                .append(" clears=").append(clears)
+                .append(" bytes=").append(bytes)
+                .append(" keys=").append(keys)
+                .append(" retries=").append(retries)
+                .append(" failures=").append(failures)
+                .append("\nframe time: ").append(frameTime)
+                .append("\nkey latency: ").append(keyLatency);
+            for(Map.Entry<String, Histogram.Summary> entry : new TreeMap<>(pages).entrySet()) {
+                text.append("\npage ").append(entry.getKey()).append(": ").append(entry.getValue());
+            };
+            return text.toString();
+        };
+    };
+};
@@ -0,0 +1,23 @@
+package pretty.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of a page rendered by the router
+ */
+@Name("pretty.PageRender")
+@Label("Page Render")
+@Category("JPretty")
+@Description("A page rendered by the router, without the time waiting for input")
+public class PageRenderEvent extends jdk.jfr.Event {
+    @Label("Page")
+    public String page;
+
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long renderTime;
+};
@@ -0,0 +1,18 @@
+package pretty.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of a repaint of live regions that failed
+ */
+@Name("pretty.RepaintFailure")
+@Label("Repaint Failure")
+@Category("JPretty")
+@Description("A repaint of live regions skipped because a region failed")
+public class RepaintFailureEvent extends jdk.jfr.Event {
+    @Label("Error")
+    public String error;
+};
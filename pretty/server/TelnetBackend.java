@@ -0,0 +1,306 @@
+package pretty.server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.ReentrantLock;
+
+import pretty.interfaces.TerminalBackend;
+import pretty.keys.KeyDecoder;
+import pretty.keys.KeyEvent;
+import pretty.utils.BytePipe;
+import pretty.utils.Escape;
+
+/**
+ * Backend of a telnet connection. The client is asked to send each key
+ * as it's typed and to report its window size, while the server echoes
+ * the lines being typed. Telnet commands are removed from the input
+ * by a thread of the connection, and each write is sent at once.
+ */
+public class TelnetBackend implements TerminalBackend {
+    private static final int IAC = 255;
+    private static final int DONT = 254;
+    private static final int DO = 253;
+    private static final int WONT = 252;
+    private static final int WILL = 251;
+    private static final int SB = 250;
+    private static final int SE = 240;
+    private static final int ECHO = 1;
+    private static final int SUPPRESS_GO_AHEAD = 3;
+    private static final int NAWS = 31;
+    private static final int LINEMODE = 34;
+
+    private static final int DATA = 0;
+    private static final int COMMAND = 1;
+    private static final int OPTION = 2;
+    private static final int SUBNEGOTIATION = 3;
+    private static final int SUBNEGOTIATION_IAC = 4;
+    private static final int RETURN = 5;
+
+    private SocketChannel channel;
+    private ThreadFactory threadFactory;
+    private BytePipe input = new BytePipe();
+    private KeyDecoder decoder = new KeyDecoder();
+    private volatile int width = 80;
+    private volatile int height = 24;
+    private volatile Runnable resizeListener;
+    private String reset = "";
+
+    private ReentrantLock lock = new ReentrantLock();
+    private StringBuilder output = new StringBuilder();
+    private CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private ByteBuffer bytes = ByteBuffer.allocate(4096);
+
+    private int state = DATA;
+    private byte[] data = new byte[1024];
+    private int dataSize = 0;
+    private byte[] subnegotiation = new byte[16];
+    private int subnegotiationSize = 0;
+
+    /**
+     * Create a backend of a connection
+     * @param channel - the channel of the connection
+     * @param threadFactory - the factory of the thread that reads the connection
+     */
+    public TelnetBackend(SocketChannel channel, ThreadFactory threadFactory) {
+        this.channel = channel;
+        this.threadFactory = threadFactory;
+    };
+
+    @Override
+    public void start() throws IOException {
+        // The server echoes and the client sends each key, without line mode
+        send(
+            IAC, WILL, ECHO,
+            IAC, WILL, SUPPRESS_GO_AHEAD,
+            IAC, DO, SUPPRESS_GO_AHEAD,
+            IAC, DO, NAWS,
+            IAC, DONT, LINEMODE
+        );
+        threadFactory.newThread(this::receive).start();
+    };
+
+    //#region Input
+    @Override
+    public int read() throws IOException {
+        return decoder.read(input);
+    };
+
+    @Override
+    public boolean available() {
+        return input.available() > 0;
+    };
+
+    @Override
+    public boolean await(long timeout) throws IOException {
+        return input.await(timeout);
+    };
+
+    @Override
+    public String readLine(String prompt) throws IOException {
+        write(prompt);
+        StringBuilder line = new StringBuilder();
+        while(true) {
+            int event = read();
+            if(event == KeyEvent.NONE) throw new EOFException("The connection was closed");
+            switch (KeyEvent.key(event)) {
+                case ENTER:
+                    write("\n");
+                    return line.toString();
+                case BACKSPACE:
+                    if(line.length() > 0) {
+                        line.setLength(line.length() - 1);
+                        write("\b \b");
+                    };
+                    break;
+                case SPACE:
+                    line.append(' ');
+                    write(" ");
+                    break;
+                default:
+                    if(KeyEvent.isCharacter(event) && KeyEvent.modifiers(event) == 0) {
+                        int start = line.length();
+                        line.appendCodePoint(KeyEvent.codePoint(event));
+                        write(line.subSequence(start, line.length()));
+                    };
+                    break;
+            }
+        }
+    };
+
+    private void receive() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        try {
+            while(channel.read(buffer.clear()) >= 0) {
+                buffer.flip();
+                // The bytes received together are given together, so an escape 
+                // sequence isn't taken for a lone ESC by the decoder
+                dataSize = 0;
+                while(buffer.hasRemaining()) parse(buffer.get() & 0xFF);
+                input.write(data, dataSize);
+            };
+        } catch (IOException _) {
+        } finally {
+            input.close();
+        }
+    };
+
+    private void parse(int value) {
+        switch (state) {
+            case COMMAND:
+                if(value == IAC) {
+                    data[dataSize++] = (byte) IAC;
+                    state = DATA;
+                } else if(value == SB) {
+                    subnegotiationSize = 0;
+                    state = SUBNEGOTIATION;
+                } else if(value >= WILL && value <= DONT) state = OPTION;
+                else state = DATA;
+                break;
+            case OPTION:
+                state = DATA;
+                break;
+            case SUBNEGOTIATION:
+                if(value == IAC) state = SUBNEGOTIATION_IAC;
+                else if(subnegotiationSize < subnegotiation.length) subnegotiation[subnegotiationSize++] = (byte) value;
+                break;
+            case SUBNEGOTIATION_IAC:
+                if(value == SE) {
+                    subnegotiation();
+                    state = DATA;
+                } else {
+                    if(subnegotiationSize < subnegotiation.length) subnegotiation[subnegotiationSize++] = (byte) value;
+                    state = SUBNEGOTIATION;
+                };
+                break;
+            case RETURN:
+                // Clients send a return as CR LF or CR NUL
+                state = DATA;
+                if(value == '\n' || value == 0) break;
+                data(value);
+                break;
+            default:
+                data(value);
+                break;
+        }
+    };
+
+    private void data(int value) {
+        if(value == IAC) state = COMMAND;
+        else {
+            data[dataSize++] = (byte) value;
+            if(value == '\r') state = RETURN;
+        };
+    };
+
+    private void subnegotiation() {
+        if(subnegotiationSize >= 5 && subnegotiation[0] == NAWS) {
+            int width = ((subnegotiation[1] & 0xFF) << 8) | (subnegotiation[2] & 0xFF);
+            int height = ((subnegotiation[3] & 0xFF) << 8) | (subnegotiation[4] & 0xFF);
+            if(width > 0) this.width = width;
+            if(height > 0) this.height = height;
+            Runnable listener = resizeListener;
+            if(listener != null) listener.run();
+        };
+    };
+    //#endregion
+
+    //#region Output
+    @Override
+    public void write(CharSequence text) {
+        // A lock instead of a monitor, so a virtual thread waiting for the channel doesn't pin its carrier
+        lock.lock();
+        try {
+            // A line break must also return the cursor in the network terminal
+            output.setLength(0);
+            for(int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if(c == '\n') output.append('\r');
+                output.append(c);
+            };
+
+            CharBuffer chars = CharBuffer.wrap(output);
+            encoder.reset();
+            while(true) {
+                CoderResult result = encoder.encode(chars, bytes, true);
+                flush();
+                if(result.isUnderflow()) break;
+            };
+            encoder.flush(bytes);
+            flush();
+        } catch (IOException _) {
+            close();
+        } finally {
+            lock.unlock();
+        }
+    };
+
+    @Override
+    public void clear() {
+        write(Escape.CLEAR);
+    };
+
+    @Override
+    public int width() {
+        return width;
+    };
+
+    @Override
+    public int height() {
+        return height;
+    };
+
+    @Override
+    public boolean setResizeListener(Runnable listener) {
+        // Clients that don't report their size are never resized
+        this.resizeListener = listener;
+        return true;
+    };
+
+    @Override
+    public void setReset(String reset) {
+        this.reset = reset;
+    };
+
+    @Override
+    public void restore() {
+        if(!reset.isEmpty()) write(reset);
+        close();
+    };
+
+    /**
+     * Close the connection
+     */
+    public void close() {
+        input.close();
+        try {
+            channel.close();
+        } catch (IOException _) {}
+    };
+
+    private void flush() throws IOException {
+        bytes.flip();
+        while(bytes.hasRemaining()) channel.write(bytes);
+        bytes.clear();
+    };
+
+    private void send(int... values) throws IOException {
+        lock.lock();
+        try {
+            for(int value : values) {
+                if(!bytes.hasRemaining()) flush();
+                bytes.put((byte) value);
+            };
+            flush();
+        } finally {
+            lock.unlock();
+        }
+    };
+    //#endregion
+};
@@ -0,0 +1,164 @@
+package pretty.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import pretty.Session;
+import pretty.errors.InputEnded;
+import pretty.interfaces.Page;
+
+/**
+ * Server of telnet connections, running a session for each one in
+ * the same process. Each connection is served by its own thread,
+ * virtual by default, starting with a page given by a supplier,
+ * and is closed when its pages end or the client leaves.
+ */
+public class TelnetServer {
+    private static final byte[] FULL = "Servidor cheio, tente novamente mais tarde.\r\n".getBytes(StandardCharsets.UTF_8);
+
+    private int port;
+    private Supplier<Page> pages;
+    private ThreadFactory threadFactory = Thread.ofVirtual().name("pretty-telnet-", 0).factory();
+    private ServerSocketChannel server;
+    private Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private AtomicInteger connections = new AtomicInteger();
+    private volatile int maxSessions = 0;
+    private volatile boolean running = false;
+
+    /**
+     * Create a server, to be started
+     * @param port - the port to listen, 0 for any free port
+     * @param pages - the supplier of the first page of each connection
+     */
+    public TelnetServer(int port, Supplier<Page> pages) {
+        this.port = port;
+        this.pages = pages;
+    };
+
+    /**
+     * Set the factory of the threads that serve the connections and
+     * read their input, virtual threads by default. Must be called before start.
+     * @param threadFactory - the thread factory
+     */
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    };
+
+    /**
+     * Set the max number of open connections, 0 for no limit, the default.
+     * Connections beyond it are told the server is full and closed at once.
+     * @param maxSessions - the max number of sessions
+     */
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = Math.max(maxSessions, 0);
+    };
+
+    /**
+     * Start listening, accepting connections in another thread
+     * @throws IOException if the port can't be bound
+     */
+    public void start() throws IOException {
+        this.server = ServerSocketChannel.open();
+        server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        server.bind(new InetSocketAddress(port));
+        this.port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+        this.running = true;
+        threadFactory.newThread(this::accept).start();
+    };
+
+    /**
+     * Stop listening and close all connections
+     */
+    public void stop() {
+        running = false;
+        try {
+            if(server != null) server.close();
+        } catch (IOException _) {}
+        for(Session session : sessions) session.stop();
+    };
+
+    /**
+     * Get the port the server listens,
+     * the one chosen if started with 0
+     * @return the port
+     */
+    public int getPort() {
+        return port;
+    };
+
+    /**
+     * Get the number of open connections
+     * @return the number of sessions
+     */
+    public int getSessions() {
+        return sessions.size();
+    };
+
+    /**
+     * Check if the server is listening
+     * @return true if running
+     */
+    public boolean isRunning() {
+        return running;
+    };
+
+    private void accept() {
+        try {
+            while(running) {
+                SocketChannel channel = server.accept();
+                // Counted here, so connections accepted at once can't exceed the limit
+                int open = connections.incrementAndGet();
+                if(maxSessions > 0 && open > maxSessions) {
+                    connections.decrementAndGet();
+                    reject(channel);
+                    continue;
+                };
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                threadFactory.newThread(() -> serve(channel)).start();
+            };
+        } catch (IOException _) {
+        } finally {
+            running = false;
+        }
+    };
+
+    private void serve(SocketChannel channel) {
+        TelnetBackend backend = new TelnetBackend(channel, threadFactory);
+        Session session = new Session(backend);
+        // The backend already reads the connection in its own thread
+        session.getTerminal().setAsyncInput(false);
+        session.getMenu().getScheduler().setThreadFactory(threadFactory);
+        sessions.add(session);
+        try {
+            session.start(pages.get());
+        } catch (InputEnded _) {
+        } finally {
+            // Released first, so a connection is accepted once the session isn't listed
+            connections.decrementAndGet();
+            sessions.remove(session);
+            session.stop();
+        }
+    };
+
+    private void reject(SocketChannel channel) {
+        try {
+            ByteBuffer message = ByteBuffer.wrap(FULL);
+            while(message.hasRemaining()) channel.write(message);
+        } catch (IOException _) {
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException _) {}
+        }
+    };
+};
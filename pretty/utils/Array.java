@@ -1,5 +1,7 @@
 package pretty.utils;
 
+import java.util.Objects;
+
 /**
  * Utility functions for arrays
  */
@@ -14,7 +16,7 @@ public class Array {
     public static <T> boolean exists(T[] array, T value) {
         if(array == null) return false;
         for (T i : array) {
-            if (i == value) return true;
+            if (Objects.equals(i, value)) return true;
         };
         return false;
     };
@@ -0,0 +1,138 @@
+package pretty.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bytes written by a thread and read as a stream by others, such as the
+ * input of a connection read by the key decoder. It holds a fixed number
+ * of bytes, so while it's full the thread that writes waits and stops
+ * reading its source. Threads wait on conditions of a lock, so virtual
+ * threads unmount, and a reader can wait for bytes without taking them.
+ */
+public class BytePipe extends InputStream {
+    private static final int CAPACITY = 4096;
+
+    private byte[] buffer = new byte[CAPACITY];
+    private int head = 0;
+    private int size = 0;
+    private boolean closed = false;
+    private ReentrantLock lock = new ReentrantLock();
+    private Condition readable = lock.newCondition();
+    private Condition writable = lock.newCondition();
+
+    /**
+     * Write bytes, waiting while the pipe is full
+     * @param values - the bytes
+     * @param count - the number of bytes to write
+     * @throws IOException if interrupted while waiting
+     */
+    public void write(byte[] values, int count) throws IOException {
+        lock.lock();
+        try {
+            int written = 0;
+            while(written < count) {
+                while(size == buffer.length && !closed) writable.await();
+                if(closed) return;
+                int free = Math.min(buffer.length - size, count - written);
+                for(int i = 0; i < free; i++) buffer[(head + size + i) % buffer.length] = values[written + i];
+                size += free;
+                written += free;
+                readable.signalAll();
+            };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            lock.unlock();
+        }
+    };
+
+    /**
+     * Wait until there are bytes to be read or the pipe is closed
+     * @param timeout - the max time to wait in nanoseconds
+     * @return true if a read won't wait
+     * @throws IOException if interrupted while waiting
+     */
+    public boolean await(long timeout) throws IOException {
+        lock.lock();
+        try {
+            long remaining = timeout;
+            while(size == 0 && !closed) {
+                if(remaining <= 0) return false;
+                remaining = readable.awaitNanos(remaining);
+            };
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            lock.unlock();
+        }
+    };
+
+    @Override
+    public int read() throws IOException {
+        lock.lock();
+        try {
+            while(size == 0 && !closed) readable.await();
+            if(size == 0) return -1;
+            int value = buffer[head] & 0xFF;
+            head = (head + 1) % buffer.length;
+            // The thread that writes waits only while it's full
+            if(size-- == buffer.length) writable.signal();
+            return value;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            lock.unlock();
+        }
+    };
+
+    /**
+     * Read the bytes available, waiting only for the first
+     */
+    @Override
+    public int read(byte[] values, int offset, int length) throws IOException {
+        if(length == 0) return 0;
+        int value = read();
+        if(value < 0) return -1;
+        values[offset] = (byte) value;
+        lock.lock();
+        try {
+            int count = Math.min(size, length - 1);
+            for(int i = 0; i < count; i++) values[offset + 1 + i] = buffer[(head + i) % buffer.length];
+            head = (head + count) % buffer.length;
+            if(count > 0 && size == buffer.length) writable.signal();
+            size -= count;
+            return count + 1;
+        } finally {
+            lock.unlock();
+        }
+    };
+
+    @Override
+    public int available() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    };
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            readable.signalAll();
+            writable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    };
+};
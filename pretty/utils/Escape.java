@@ -0,0 +1,62 @@
+package pretty.utils;
+
+/**
+ * ANSI escape sequences used to control the terminal
+ */
+public class Escape {
+    /**
+     * Move the cursor to the top left corner
+     */
+    public static final String HOME = "\033[H";
+
+    /**
+     * Erase the entire screen
+     */
+    public static final String ERASE_SCREEN = "\033[2J";
+
+    /**
+     * Move the cursor to the top left corner and erase the entire screen
+     */
+    public static final String CLEAR = HOME + ERASE_SCREEN;
+
+    /**
+     * Switch to the alternate screen buffer
+     */
+    public static final String ALTERNATE_SCREEN = "\033[?1049h";
+
+    /**
+     * Switch back from the alternate screen buffer
+     */
+    public static final String MAIN_SCREEN = "\033[?1049l";
+
+    /**
+     * Erase the entire line under the cursor
+     */
+    public static final String ERASE_LINE = "\033[2K";
+
+    /**
+     * Erase from the cursor to the end of the screen
+     */
+    public static final String ERASE_BELOW = "\033[J";
+
+    /**
+     * Save the position of the cursor
+     */
+    public static final String SAVE_CURSOR = "\0337";
+
+    /**
+     * Move the cursor back to the saved position
+     */
+    public static final String RESTORE_CURSOR = "\0338";
+
+    /**
+     * Append the sequence that moves the cursor to a position
+     * @param buffer - buffer to append to
+     * @param row - the row, starting at 1
+     * @param column - the column, starting at 1
+     * @return the same buffer
+     */
+    public static StringBuilder moveTo(StringBuilder buffer, int row, int column) {
+        return buffer.append("\033[").append(row).append(';').append(column).append('H');
+    };
+};
@@ -0,0 +1,86 @@
+package pretty.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free bounded queue of ints for a single producer 
+ * thread and a single consumer thread. Each value can carry
+ * a time, such as when a key arrived.
+ */
+public class IntQueue {
+    /**
+     * Value returned by poll when the queue is empty
+     */
+    public static final int EMPTY = Integer.MIN_VALUE;
+
+    private final int[] items;
+    private final long[] times;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private long time = 0;
+
+    /**
+     * Create a queue
+     * @param capacity - the min capacity, rounded up to a power of two
+     */
+    public IntQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.items = new int[size];
+        this.times = new long[size];
+        this.mask = size - 1;
+    };
+
+    /**
+     * Add a value, called only by the producer thread
+     * @param value - the value
+     * @return false if the queue is full
+     */
+    public boolean offer(int value) {
+        return offer(value, 0);
+    };
+
+    /**
+     * Add a value with a time, called only by the producer thread
+     * @param value - the value
+     * @param time - the time, read by getTime after the value is polled
+     * @return false if the queue is full
+     */
+    public boolean offer(int value, long time) {
+        long t = tail.get();
+        if(t - head.get() == items.length) return false;
+        items[(int) t & mask] = value;
+        times[(int) t & mask] = time;
+        tail.lazySet(t + 1);
+        return true;
+    };
+
+    /**
+     * Remove the oldest value, called only by the consumer thread
+     * @return the value, or EMPTY if the queue is empty
+     */
+    public int poll() {
+        long h = head.get();
+        if(h == tail.get()) return EMPTY;
+        int value = items[(int) h & mask];
+        time = times[(int) h & mask];
+        head.lazySet(h + 1);
+        return value;
+    };
+
+    /**
+     * Get the time of the last value polled, called only by the consumer thread
+     * @return the time, or 0 if the value had none
+     */
+    public long getTime() {
+        return time;
+    };
+
+    /**
+     * Check if the queue is empty
+     * @return true if there are no values
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    };
+};
@@ -0,0 +1,109 @@
+package pretty.utils;
+
+import java.util.BitSet;
+
+/**
+ * Set of locked option indexes, backed by a BitSet
+ */
+public class LockSet {
+    private BitSet bits = new BitSet();
+
+    /**
+     * Create an empty set
+     */
+    public LockSet() {};
+
+    /**
+     * Create a set with the locked indexes
+     * @param indexes - the locked indexes
+     * @return the set
+     */
+    public static LockSet of(int... indexes) {
+        LockSet set = new LockSet();
+        for(int index : indexes) set.lock(index);
+        return set;
+    };
+
+    /**
+     * Create a set with the locked indexes, null values are ignored
+     * @param indexes - the locked indexes, can be null
+     * @return the set
+     */
+    public static LockSet of(Integer[] indexes) {
+        LockSet set = new LockSet();
+        if(indexes == null) return set;
+        for(Integer index : indexes) {
+            if(index != null) set.lock(index);
+        };
+        return set;
+    };
+
+    /**
+     * Lock an index, negative indexes are ignored
+     * @param index - the index
+     * @return this set
+     */
+    public LockSet lock(int index) {
+        if(index >= 0) bits.set(index);
+        return this;
+    };
+
+    /**
+     * Unlock an index
+     * @param index - the index
+     * @return this set
+     */
+    public LockSet unlock(int index) {
+        if(index >= 0) bits.clear(index);
+        return this;
+    };
+
+    /**
+     * Check if an index is locked
+     * @param index - the index
+     * @return true if the index is locked
+     */
+    public boolean isLocked(int index) {
+        return index >= 0 && bits.get(index);
+    };
+
+    /**
+     * Count the locked indexes lower than a size
+     * @param size - the size
+     * @return the number of locked indexes
+     */
+    public int count(int size) {
+        if(bits.length() <= size) return bits.cardinality();
+        int count = 0;
+        for(int i = bits.nextSetBit(0); i >= 0 && i < size; i = bits.nextSetBit(i + 1)) count++;
+        return count;
+    };
+
+    /**
+     * Find the first unlocked index from an index, going
+     * forward and wrapping around at the size
+     * @param from - the index to start from, included
+     * @param size - the size
+     * @return the unlocked index, or -1 if all are locked
+     */
+    public int nextUnlocked(int from, int size) {
+        if(size <= 0) return -1;
+        int index = bits.nextClearBit(Calc.mod(from, size));
+        if(index >= size) index = bits.nextClearBit(0);
+        return index < size? index: -1;
+    };
+
+    /**
+     * Find the first unlocked index from an index, going
+     * backward and wrapping around at the size
+     * @param from - the index to start from, included
+     * @param size - the size
+     * @return the unlocked index, or -1 if all are locked
+     */
+    public int previousUnlocked(int from, int size) {
+        if(size <= 0) return -1;
+        int index = bits.previousClearBit(Calc.mod(from, size));
+        if(index < 0) index = bits.previousClearBit(size - 1);
+        return index;
+    };
+};
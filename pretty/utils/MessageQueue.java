@@ -0,0 +1,62 @@
+package pretty.utils;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free unbounded queue for many producer
+ * threads and a single consumer thread
+ * @param <T> T - type of the values
+ */
+public class MessageQueue<T> {
+    private final AtomicReference<Node<T>> tail;
+    private Node<T> head;
+
+    /**
+     * Create an empty queue
+     */
+    public MessageQueue() {
+        Node<T> stub = new Node<T>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<Node<T>>(stub);
+    };
+
+    /**
+     * Add a value, called by any thread
+     * @param value - the value, not null
+     */
+    public void offer(T value) {
+        Node<T> node = new Node<T>(value);
+        // The node is linked after being published, so the consumer may briefly not see it
+        tail.getAndSet(node).next = node;
+    };
+
+    /**
+     * Remove the oldest value, called only by the consumer thread
+     * @return the value, or null if the queue is empty
+     */
+    public T poll() {
+        Node<T> next = head.next;
+        if(next == null) return null;
+        T value = next.value;
+        next.value = null;
+        head = next;
+        return value;
+    };
+
+    /**
+     * Check if the queue is empty
+     * @return true if there are no values
+     */
+    public boolean isEmpty() {
+        return head.next == null && tail.get() == head;
+    };
+
+    private static class Node<T> {
+        private T value;
+        private volatile Node<T> next;
+
+        private Node(T value) {
+            this.value = value;
+        };
+    };
+};
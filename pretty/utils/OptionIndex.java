@@ -0,0 +1,125 @@
+package pretty.utils;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+import pretty.interfaces.OptionSource;
+
+/**
+ * Prefix index over the words of option labels. A query is split in
+ * words and matches the options that have a word starting with each
+ * of them, ignoring case, accents and escape sequences.
+ */
+public class OptionIndex {
+    private static final int[] NONE = new int[0];
+    private Node root = new Node();
+
+    /**
+     * Build the index of all options of a source, reading every
+     * label, so it's meant for sources kept in memory
+     * @param source - the source of the options
+     */
+    public OptionIndex(OptionSource source) {
+        int size = source.size();
+        source.load(0, size);
+        for(int i = 0; i < size; i++) add(i, source.label(i));
+    };
+
+    /**
+     * Find the options matching a query
+     * @param query - the query
+     * @return the indexes of the options in ascending order
+     */
+    public int[] find(String query) {
+        int[] result = null;
+        for(String word : words(query)) {
+            if(word.isEmpty()) continue;
+            Node node = root;
+            for(int i = 0; i < word.length() && node != null; i++) node = node.child(word.charAt(i));
+            if(node == null) return NONE;
+            result = result == null? Arrays.copyOf(node.options, node.count): intersect(result, node.options, node.count);
+            if(result.length == 0) return NONE;
+        };
+        return result == null? NONE: result;
+    };
+
+    /**
+     * Normalize a text to be indexed or searched, removing escape
+     * sequences, accents and converting it to lower case
+     * @param text - the text
+     * @return the normalized text
+     */
+    public static String normalize(String text) {
+        StringBuilder plain = new StringBuilder(text.length());
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c == '\033' && i + 1 < text.length() && text.charAt(i + 1) == '[') {
+                i += 2;
+                while(i < text.length() && (text.charAt(i) < '@' || text.charAt(i) > '~')) i++;
+            } else plain.append(c);
+        };
+        String decomposed = Normalizer.normalize(plain, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase();
+    };
+
+    private static String[] words(String text) {
+        return normalize(text).split("[^\\p{L}\\p{N}]+");
+    };
+
+    private void add(int option, String label) {
+        for(String word : words(label)) {
+            Node node = root;
+            for(int i = 0; i < word.length(); i++) {
+                node = node.add(word.charAt(i));
+                node.mark(option);
+            };
+        };
+    };
+
+    private static int[] intersect(int[] a, int[] b, int length) {
+        int[] result = new int[Math.min(a.length, length)];
+        int i = 0, j = 0, count = 0;
+        while(i < a.length && j < length) {
+            if(a[i] < b[j]) i++;
+            else if(a[i] > b[j]) j++;
+            else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            };
+        };
+        return Arrays.copyOf(result, count);
+    };
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int[] options = new int[2];
+        private int count = 0;
+
+        private Node child(char key) {
+            for(int i = 0; i < keys.length; i++) {
+                if(keys[i] == key) return children[i];
+            };
+            return null;
+        };
+
+        private Node add(char key) {
+            Node child = child(key);
+            if(child != null) return child;
+            child = new Node();
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = key;
+            children[children.length - 1] = child;
+            return child;
+        };
+
+        private void mark(int option) {
+            // Options are added in order, so a repeated word only needs to check the last one
+            if(count > 0 && options[count - 1] == option) return;
+            if(count == options.length) options = Arrays.copyOf(options, count * 2);
+            options[count++] = option;
+        };
+    };
+};
@@ -0,0 +1,115 @@
+package pretty.utils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import pretty.interfaces.OptionSource;
+
+/**
+ * Utility functions for option sources
+ */
+public class Options {
+    /**
+     * Create a source from an array of options,
+     * searched through an index of its labels
+     * @param options - the options
+     * @return the source
+     */
+    public static OptionSource of(String[] options) {
+        return new OptionSource() {
+            private OptionIndex index;
+
+            @Override
+            public int size() {
+                return options.length;
+            };
+
+            @Override
+            public String label(int index) {
+                return options[index];
+            };
+
+            @Override
+            public int[] search(String query) {
+                // Built on the first search, as most lists are never filtered
+                if(index == null) index = new OptionIndex(this);
+                return index.find(query);
+            };
+        };
+    };
+
+    /**
+     * Create a source that keeps the most recently visited pages of another 
+     * source in memory, each page is loaded with a single call to load.
+     * Searches are answered by the source.
+     * @param source - the source
+     * @param optionsPerPage - the number of options per page
+     * @param pages - the max number of pages kept
+     * @return the cached source
+     */
+    public static OptionSource cached(OptionSource source, int optionsPerPage, int pages) {
+        return new Cached(source, optionsPerPage, pages);
+    };
+
+    private static class Cached implements OptionSource {
+        private OptionSource source;
+        private int optionsPerPage;
+        private LinkedHashMap<Integer, String[]> pages;
+        private int[] scattered = new int[0];
+        private String[] scatteredLabels = new String[0];
+
+        private Cached(OptionSource source, int optionsPerPage, int capacity) {
+            this.source = source;
+            this.optionsPerPage = Math.max(optionsPerPage, 1);
+            this.pages = new LinkedHashMap<Integer, String[]>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+                    return size() > capacity;
+                };
+            };
+        };
+
+        @Override
+        public int size() {
+            return source.size();
+        };
+
+        @Override
+        public String label(int index) {
+            int page = index / optionsPerPage;
+            String[] labels = pages.get(page);
+            if(labels == null) {
+                int loaded = Arrays.binarySearch(scattered, index);
+                if(loaded >= 0) return scatteredLabels[loaded];
+                int from = page * optionsPerPage;
+                int to = Math.min(from + optionsPerPage, source.size());
+                source.load(from, to);
+                labels = new String[to - from];
+                for(int i = from; i < to; i++) labels[i - from] = source.label(i);
+                pages.put(page, labels);
+            };
+            return labels[index - page * optionsPerPage];
+        };
+
+        @Override
+        public void load(int[] indexes) {
+            // Options out of the pages kept are loaded together, instead of a page for each one
+            int count = 0;
+            int[] missing = new int[indexes.length];
+            for(int index : indexes) {
+                if(!pages.containsKey(index / optionsPerPage)) missing[count++] = index;
+            };
+            scattered = Arrays.copyOf(missing, count);
+            scatteredLabels = new String[count];
+            if(count == 0) return;
+            source.load(scattered);
+            for(int i = 0; i < count; i++) scatteredLabels[i] = source.label(scattered[i]);
+        };
+
+        @Override
+        public int[] search(String query) {
+            return source.search(query);
+        };
+    };
+};
@@ -0,0 +1,99 @@
+package pretty.utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import pretty.interfaces.RowSource;
+
+/**
+ * Utility functions for row sources
+ */
+public class Rows {
+    /**
+     * Create a source from rows in memory, sorted by an index
+     * of the rows, so the list itself is never changed
+     * @param columns - the names of the columns
+     * @param rows - the rows, each one with a value for each column
+     * @return the source
+     */
+    public static RowSource of(String[] columns, List<Object[]> rows) {
+        return new Memory(columns, rows);
+    };
+
+    /**
+     * Compare values of a column: numbers by value, other comparable
+     * values of the same class by their order, the rest by their text.
+     * Nulls come first.
+     * @param a - a value
+     * @param b - another value
+     * @return the comparison
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static int compare(Object a, Object b) {
+        if(a == b) return 0;
+        if(a == null) return -1;
+        if(b == null) return 1;
+        if(a instanceof Number x && b instanceof Number y) return Double.compare(x.doubleValue(), y.doubleValue());
+        if(a instanceof Comparable x && a.getClass() == b.getClass()) return x.compareTo(b);
+        return a.toString().compareTo(b.toString());
+    };
+
+    private static class Memory implements RowSource {
+        private String[] columns;
+        private List<Object[]> rows;
+        private Integer[] order;
+
+        private Memory(String[] columns, List<Object[]> rows) {
+            this.columns = columns;
+            this.rows = rows;
+        };
+
+        @Override
+        public String[] columns() {
+            return columns;
+        };
+
+        @Override
+        public int size() {
+            return rows.size();
+        };
+
+        @Override
+        public Iterator<Object[]> rows(int from) {
+            return new Iterator<Object[]>() {
+                private int index = from;
+
+                @Override
+                public boolean hasNext() {
+                    return index < rows.size();
+                };
+
+                @Override
+                public Object[] next() {
+                    if(!hasNext()) throw new NoSuchElementException();
+                    int row = index++;
+                    return rows.get(order != null? order[row]: row);
+                };
+            };
+        };
+
+        @Override
+        public boolean sort(int column, boolean ascending) {
+            if(order == null || order.length != rows.size()) {
+                order = new Integer[rows.size()];
+                for(int i = 0; i < order.length; i++) order[i] = i;
+            };
+            Comparator<Integer> comparator = (a, b) -> compare(value(a, column), value(b, column));
+            Arrays.sort(order, ascending? comparator: comparator.reversed());
+            return true;
+        };
+
+        private Object value(int row, int column) {
+            Object[] values = rows.get(row);
+            return column < values.length? values[column]: null;
+        };
+    };
+};
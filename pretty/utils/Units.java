@@ -0,0 +1,43 @@
+package pretty.utils;
+
+/**
+ * Formatting of counts and durations shown to the user
+ */
+public class Units {
+    private static final String SUFFIXES = "kMGTPE";
+
+    /**
+     * Append a count, abbreviated with a suffix when large, as 950, 1.2k or 3.4M
+     * @param buffer - buffer to append to
+     * @param count - the count
+     * @return the same buffer
+     */
+    public static StringBuilder count(StringBuilder buffer, double count) {
+        if(count < 1000) return buffer.append((long) count);
+        int suffix = -1;
+        long tenths = Math.round(count * 10);
+        // Rounded before choosing the suffix, so 999.95k is shown as 1.0M
+        while(tenths >= 10_000 && suffix < SUFFIXES.length() - 1) {
+            count /= 1000;
+            suffix++;
+            tenths = Math.round(count * 10);
+        };
+        return buffer.append(tenths / 10).append('.').append(tenths % 10).append(SUFFIXES.charAt(suffix));
+    };
+
+    /**
+     * Append a duration as m:ss, or h:mm:ss from an hour
+     * @param buffer - buffer to append to
+     * @param nanos - the duration in nanoseconds
+     * @return the same buffer
+     */
+    public static StringBuilder duration(StringBuilder buffer, long nanos) {
+        long seconds = Math.max(nanos, 0) / 1_000_000_000L;
+        long hours = seconds / 3600;
+        long minutes = seconds / 60 % 60;
+        seconds %= 60;
+        if(hours > 0) buffer.append(hours).append(':').append(minutes < 10? "0": "");
+        buffer.append(minutes).append(':');
+        return buffer.append(seconds < 10? "0": "").append(seconds);
+    };
+};
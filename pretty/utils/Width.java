@@ -0,0 +1,259 @@
+package pretty.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Width of text on the terminal, in columns. Escape sequences take no
+ * columns, combining marks and joined emojis are part of the character
+ * before them, and wide characters, such as CJK and most emojis, take
+ * two columns. Measures of non-ASCII text are kept in a small cache,
+ * as the same labels are measured on every frame. Styled text, such as
+ * live regions and spinners that change on every frame, isn't kept.
+ */
+public class Width {
+    private static final int CACHE = 1024;
+    private static final String ELLIPSIS = "\u2026";
+    private static final String RESET = "\033[0m";
+    private static final Map<String, Integer> cache = new LinkedHashMap<String, Integer>(CACHE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > CACHE;
+        };
+    };
+
+    // Ranges of wide code points, from the East Asian Width property (W and F)
+    private static final int[] WIDE = {
+        0x1100, 0x115F, 0x231A, 0x231B, 0x2329, 0x232A, 0x23E9, 0x23EC,
+        0x23F0, 0x23F0, 0x23F3, 0x23F3, 0x25FD, 0x25FE, 0x2614, 0x2615,
+        0x2648, 0x2653, 0x267F, 0x267F, 0x2693, 0x2693, 0x26A1, 0x26A1,
+        0x26AA, 0x26AB, 0x26BD, 0x26BE, 0x26C4, 0x26C5, 0x26CE, 0x26CE,
+        0x26D4, 0x26D4, 0x26EA, 0x26EA, 0x26F2, 0x26F3, 0x26F5, 0x26F5,
+        0x26FA, 0x26FA, 0x26FD, 0x26FD, 0x2705, 0x2705, 0x270A, 0x270B,
+        0x2728, 0x2728, 0x274C, 0x274C, 0x274E, 0x274E, 0x2753, 0x2755,
+        0x2757, 0x2757, 0x2795, 0x2797, 0x27B0, 0x27B0, 0x27BF, 0x27BF,
+        0x2B1B, 0x2B1C, 0x2B50, 0x2B50, 0x2B55, 0x2B55, 0x2E80, 0x303E,
+        0x3041, 0x33FF, 0x3400, 0x4DBF, 0x4E00, 0x9FFF, 0xA000, 0xA4CF,
+        0xA960, 0xA97F, 0xAC00, 0xD7A3, 0xF900, 0xFAFF, 0xFE10, 0xFE19,
+        0xFE30, 0xFE6F, 0xFF00, 0xFF60, 0xFFE0, 0xFFE6, 0x16FE0, 0x16FE4,
+        0x17000, 0x18CFF, 0x1B000, 0x1B2FF, 0x1F004, 0x1F004, 0x1F0CF, 0x1F0CF,
+        0x1F18E, 0x1F18E, 0x1F191, 0x1F19A, 0x1F200, 0x1F202, 0x1F210, 0x1F23B,
+        0x1F240, 0x1F248, 0x1F250, 0x1F251, 0x1F260, 0x1F265, 0x1F300, 0x1F320,
+        0x1F32D, 0x1F335, 0x1F337, 0x1F37C, 0x1F37E, 0x1F393, 0x1F3A0, 0x1F3CA,
+        0x1F3CF, 0x1F3D3, 0x1F3E0, 0x1F3F0, 0x1F3F4, 0x1F3F4, 0x1F3F8, 0x1F43E,
+        0x1F440, 0x1F440, 0x1F442, 0x1F4FC, 0x1F4FF, 0x1F53D, 0x1F54B, 0x1F54E,
+        0x1F550, 0x1F567, 0x1F57A, 0x1F57A, 0x1F595, 0x1F596, 0x1F5A4, 0x1F5A4,
+        0x1F5FB, 0x1F64F, 0x1F680, 0x1F6C5, 0x1F6CC, 0x1F6CC, 0x1F6D0, 0x1F6D2,
+        0x1F6D5, 0x1F6D7, 0x1F6DC, 0x1F6DF, 0x1F6EB, 0x1F6EC, 0x1F6F4, 0x1F6FC,
+        0x1F7E0, 0x1F7EB, 0x1F7F0, 0x1F7F0, 0x1F90C, 0x1F93A, 0x1F93C, 0x1F945,
+        0x1F947, 0x1F9FF, 0x1FA70, 0x1FAFF, 0x20000, 0x2FFFD, 0x30000, 0x3FFFD
+    };
+
+    /**
+     * Get the number of columns of a text
+     * @param text - the text, can have escape sequences
+     * @return the number of columns
+     */
+    public static int of(String text) {
+        if(isPlain(text)) return text.length();
+        if(text.indexOf('\033') >= 0) return measure(text, Integer.MAX_VALUE, null);
+        synchronized (cache) {
+            Integer width = cache.get(text);
+            if(width != null) return width;
+        }
+        int width = measure(text, Integer.MAX_VALUE, null);
+        synchronized (cache) {
+            cache.put(text, width);
+        }
+        return width;
+    };
+
+    /**
+     * Get the number of columns of a code point alone
+     * @param codePoint - the code point
+     * @return 0, 1 or 2
+     */
+    public static int of(int codePoint) {
+        if(codePoint >= 0x20 && codePoint < 0x7F) return 1;
+        if(codePoint < 0x20 || (codePoint >= 0x7F && codePoint < 0xA0)) return 0;
+        if(isZero(codePoint)) return 0;
+        return isWide(codePoint)? 2: 1;
+    };
+
+    /**
+     * Cut a text to fit a number of columns, ending it with an ellipsis
+     * when cut. Escape sequences are kept, and styles are reset when cut.
+     * @param text - the text
+     * @param width - the max number of columns
+     * @return the text, unchanged if it fits
+     */
+    public static String truncate(String text, int width) {
+        if(width <= 0) return "";
+        if(of(text) <= width) return text;
+        if(isPlain(text)) return text.substring(0, width - 1) + ELLIPSIS;
+        StringBuilder buffer = new StringBuilder(text.length());
+        measure(text, width - 1, buffer);
+        if(buffer.indexOf("\033") >= 0) buffer.append(RESET);
+        return buffer.append(ELLIPSIS).toString();
+    };
+
+    /**
+     * Get where to cut a text so its start fits a number of columns,
+     * such as to break it in rows. Escape sequences and zero-width
+     * characters are kept with the characters before them.
+     * @param text - the text
+     * @param width - the max number of columns
+     * @return the index of the cut, the length of the text if it fits
+     */
+    public static int cut(String text, int width) {
+        if(isPlain(text)) return Math.max(Math.min(text.length(), width), 0);
+        StringBuilder buffer = new StringBuilder(text.length());
+        measure(text, width, buffer);
+        return buffer.length();
+    };
+
+    /**
+     * Fit a text to exactly a number of columns,
+     * cutting it or adding spaces to the right
+     * @param text - the text
+     * @param width - the number of columns
+     * @return the fitted text
+     */
+    public static String pad(String text, int width) {
+        return append(new StringBuilder(), text, width, false).toString();
+    };
+
+    /**
+     * Fit a text to exactly a number of columns,
+     * cutting it or adding spaces to the left
+     * @param text - the text
+     * @param width - the number of columns
+     * @return the fitted text
+     */
+    public static String padLeft(String text, int width) {
+        return append(new StringBuilder(), text, width, true).toString();
+    };
+
+    /**
+     * Append a text fitted to exactly a number of columns
+     * @param buffer - buffer to append to
+     * @param text - the text
+     * @param width - the number of columns
+     * @param left - true to add the spaces to the left
+     * @return the same buffer
+     */
+    public static StringBuilder append(StringBuilder buffer, String text, int width, boolean left) {
+        text = truncate(text, width);
+        int spaces = width - of(text);
+        if(!left) buffer.append(text);
+        for(int i = 0; i < spaces; i++) buffer.append(' ');
+        if(left) buffer.append(text);
+        return buffer;
+    };
+
+    //#region Private
+    private static boolean isPlain(String text) {
+        for(int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if(c < 0x20 || c >= 0x7F) return false;
+        };
+        return true;
+    };
+
+    /**
+     * Measure a text, copying to a buffer the characters
+     * that fit a number of columns when given
+     */
+    private static int measure(String text, int limit, StringBuilder buffer) {
+        int width = 0;
+        int previous = -1;
+        boolean joined = false;
+        boolean flag = false;
+        for(int i = 0; i < text.length();) {
+            int codePoint = text.codePointAt(i);
+            int start = i;
+            i += Character.charCount(codePoint);
+
+            if(codePoint == '\033') {
+                i = escape(text, i);
+                if(buffer != null) buffer.append(text, start, i);
+                continue;
+            };
+
+            int columns;
+            if(joined) {
+                // A character joined to the one before is drawn with it
+                columns = 0;
+                joined = false;
+            } else if(codePoint == 0x200D) {
+                columns = 0;
+                joined = true;
+            } else if(codePoint == 0xFE0F) {
+                // The emoji style of a narrow symbol is drawn wide
+                columns = previous >= 0 && of(previous) == 1 && previous >= 0x2000? 1: 0;
+            } else if(codePoint >= 0x1F1E6 && codePoint <= 0x1F1FF) {
+                // Two regional indicators make a single flag
+                columns = flag? 0: 2;
+                flag = !flag;
+            } else columns = of(codePoint);
+            if(codePoint < 0x1F1E6 || codePoint > 0x1F1FF) flag = false;
+            if(columns > 0) previous = codePoint;
+
+            if(width + columns > limit) return width;
+            width += columns;
+            if(buffer != null) buffer.append(text, start, i);
+        };
+        return width;
+    };
+
+    private static int escape(String text, int i) {
+        if(i >= text.length()) return i;
+        char kind = text.charAt(i++);
+        if(kind == '[') {
+            // Control sequence, ended by a final byte
+            while(i < text.length()) {
+                char c = text.charAt(i++);
+                if(c >= 0x40 && c <= 0x7E) break;
+            };
+        } else if(kind == ']') {
+            // Operating system command, ended by BEL or ESC \
+            while(i < text.length()) {
+                char c = text.charAt(i++);
+                if(c == 0x07) break;
+                if(c == '\033' && i < text.length() && text.charAt(i) == '\\') {
+                    i++;
+                    break;
+                };
+            };
+        };
+        return i;
+    };
+
+    private static boolean isZero(int codePoint) {
+        switch (Character.getType(codePoint)) {
+            case Character.NON_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.FORMAT:
+                return true;
+            default:
+                // Skin tones, variation selectors and the vowels and finals of Hangul Jamo
+                return (codePoint >= 0x1F3FB && codePoint <= 0x1F3FF)
+                    || (codePoint >= 0xFE00 && codePoint <= 0xFE0F)
+                    || (codePoint >= 0x1160 && codePoint <= 0x11FF);
+        }
+    };
+
+    private static boolean isWide(int codePoint) {
+        if(codePoint < WIDE[0]) return false;
+        int low = 0;
+        int high = WIDE.length / 2 - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            if(codePoint < WIDE[middle * 2]) high = middle - 1;
+            else if(codePoint > WIDE[middle * 2 + 1]) low = middle + 1;
+            else return true;
+        };
+        return false;
+    };
+    //#endregion
+};
@@ -0,0 +1,5 @@
+# The JUnit console launcher (junit-platform-console-standalone) must be copied to test/lib
+javac -encoding UTF-8 -cp "./lib/jline.jar:./lib/jcolor.jar" pretty/*.java pretty/**/*.java -d test/target
+javac -encoding UTF-8 -cp "./test/target:./lib/jline.jar:./lib/jcolor.jar:./test/lib/*" test/pretty/test/*.java -d test/target
+java -cp "./test/target:./lib/jline.jar:./lib/jcolor.jar:./test/lib/*" org.junit.platform.console.ConsoleLauncher --select-package pretty.test "$@"
+rm -rf test/target
@@ -0,0 +1,154 @@
+package pretty.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import pretty.Terminal;
+import pretty.backends.HeadlessBackend;
+import pretty.interfaces.KeyTranslator;
+import pretty.keys.Key;
+import pretty.keys.KeyDecoder;
+import pretty.keys.KeyEvent;
+
+/**
+ * Escape sequences and UTF-8 characters fed to the decoder byte by byte
+ */
+public class KeyDecoderTest {
+    private KeyDecoder decoder = new KeyDecoder();
+
+    @Test
+    public void decodesArrows() {
+        assertEquals(KeyEvent.of(Key.UP), feed("\033[A"));
+        assertEquals(KeyEvent.of(Key.DOWN), feed("\033[B"));
+        assertEquals(KeyEvent.of(Key.RIGHT), feed("\033OC"));
+        assertEquals(KeyEvent.of(Key.LEFT), feed("\033OD"));
+    };
+
+    @Test
+    public void decodesTildeSequences() {
+        assertEquals(KeyEvent.of(Key.DELETE), feed("\033[3~"));
+        assertEquals(KeyEvent.of(Key.PAGE_UP), feed("\033[5~"));
+        assertEquals(KeyEvent.of(Key.PAGE_DOWN), feed("\033[6~"));
+        assertEquals(KeyEvent.of(Key.F5), feed("\033[15~"));
+    };
+
+    @Test
+    public void decodesModifiers() {
+        assertEquals(KeyEvent.of(Key.RIGHT, KeyEvent.CTRL), feed("\033[1;5C"));
+        assertEquals(KeyEvent.of(Key.UP, KeyEvent.SHIFT), feed("\033[1;2A"));
+        assertEquals(KeyEvent.of(Key.DELETE, KeyEvent.ALT), feed("\033[3;3~"));
+        assertEquals(KeyEvent.of(Key.TAB, KeyEvent.SHIFT), feed("\033[Z"));
+        assertEquals(KeyEvent.character('x', KeyEvent.ALT), feed("\033x"));
+    };
+
+    @Test
+    public void decodesControlBytes() {
+        assertEquals(KeyEvent.of(Key.ENTER), feed("\r"));
+        assertEquals(KeyEvent.of(Key.BACKSPACE), feed("\u007f"));
+        assertEquals(KeyEvent.of(Key.TAB), feed("\t"));
+        assertEquals(KeyEvent.character('a', KeyEvent.CTRL), feed("\u0001"));
+    };
+
+    @Test
+    public void decodesControlLettersAsControl() {
+        // Only the virtual codes of the console are arrows, so these can be bound
+        assertEquals(KeyEvent.character('b', KeyEvent.CTRL), feed("\u0002"));
+        assertEquals(KeyEvent.character('f', KeyEvent.CTRL), feed("\u0006"));
+        assertEquals(KeyEvent.character('n', KeyEvent.CTRL), feed("\u000e"));
+        assertEquals(KeyEvent.character('p', KeyEvent.CTRL), feed("\u0010"));
+    };
+
+    @Test
+    public void translatesVirtualCodes() {
+        assertEquals(KeyEvent.of(Key.UP), KeyDecoder.virtual(16));
+        assertEquals(KeyEvent.of(Key.DOWN), KeyDecoder.virtual(14));
+        assertEquals(KeyEvent.of(Key.LEFT), KeyDecoder.virtual(2));
+        assertEquals(KeyEvent.of(Key.RIGHT), KeyDecoder.virtual(6));
+        assertEquals(KeyEvent.of(Key.HOME), KeyDecoder.virtual(1));
+        assertEquals(KeyEvent.character('x'), KeyDecoder.virtual('x'));
+        assertEquals(KeyEvent.NONE, KeyDecoder.virtual(-1));
+    };
+
+    @Test
+    public void givesLegacyTranslatorsVirtualCodes() {
+        // A translator written for the virtual key codes the terminal gave before events
+        KeyTranslator<Integer> legacy = new KeyTranslator<Integer>() {
+            @Override
+            @Deprecated
+            public Integer translate(int key) {
+                return key;
+            };
+
+            @Override
+            public Integer untranslatable() {
+                return null;
+            };
+        };
+        HeadlessBackend backend = new HeadlessBackend();
+        Terminal<Integer> terminal = Terminal.build(legacy);
+        terminal.setBackend(backend);
+        terminal.setAsyncInput(false);
+        terminal.start();
+        try {
+            backend.press(Key.UP);
+            backend.type("é");
+            backend.press(KeyEvent.character('p', KeyEvent.CTRL));
+            backend.press(Key.F5);
+            assertEquals(16, (int) terminal.key());
+            assertEquals((int) 'é', (int) terminal.key());
+            // Control letters that the console gave as arrows and keys it didn't give have no code
+            assertEquals(-1, (int) terminal.key());
+            assertEquals(-1, (int) terminal.key());
+        } finally {
+            terminal.stop();
+        }
+    };
+
+    @Test
+    public void waitsForTheRestOfAnEscape() {
+        assertEquals(KeyEvent.NONE, decoder.feed(27));
+        assertTrue(decoder.isPending());
+        assertEquals(KeyEvent.of(Key.ESCAPE), decoder.timeout());
+        assertFalse(decoder.isPending());
+    };
+
+    @Test
+    public void readsALoneEscape() throws IOException {
+        ByteArrayInputStream input = new ByteArrayInputStream(new byte[] { 27 });
+        assertEquals(KeyEvent.of(Key.ESCAPE), decoder.read(input));
+        assertEquals(KeyEvent.NONE, decoder.read(input));
+    };
+
+    @Test
+    public void decodesUtf8() {
+        assertEquals(KeyEvent.character('ç'), feed("ç"));
+        assertEquals(KeyEvent.character('€'), feed("€"));
+        assertEquals(KeyEvent.character(0x1F600), feed(new String(Character.toChars(0x1F600))));
+    };
+
+    @Test
+    public void replacesInvalidUtf8() {
+        assertEquals(KeyEvent.character(0xFFFD), decoder.feed(0x80));
+        assertEquals(KeyEvent.NONE, decoder.feed(0xC3));
+        assertEquals(KeyEvent.character(0xFFFD), decoder.feed('a'));
+        assertFalse(decoder.isPending());
+    };
+
+    /**
+     * Feed the bytes of a text, checking that only the last one ends a key
+     */
+    private int feed(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for(int i = 0; i < bytes.length - 1; i++) {
+            assertEquals(KeyEvent.NONE, decoder.feed(bytes[i]), "byte " + i);
+        };
+        return decoder.feed(bytes[bytes.length - 1]);
+    };
+};
@@ -0,0 +1,307 @@
+package pretty.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pretty.Session;
+import pretty.backends.HeadlessBackend;
+import pretty.errors.InputEnded;
+import pretty.interfaces.OptionSource;
+import pretty.keys.Key;
+import pretty.layout.Menu;
+import pretty.metrics.Metrics;
+import pretty.utils.Width;
+
+/**
+ * Option widgets driven by keys pressed before they are shown. The input
+ * is closed after the keys, so a widget waiting for more fails the test.
+ */
+public class MenuTest {
+    private static final String[] FRUITS = { "Maçã", "Banana", "Manga", "Uva", "Laranja" };
+
+    private HeadlessBackend backend;
+    private Session session;
+    private Menu menu;
+
+    @BeforeEach
+    public void start() {
+        backend = new HeadlessBackend(40, 20);
+        session = new Session(backend);
+        session.getTerminal().setAsyncInput(false);
+        menu = session.getMenu();
+        menu.start();
+    };
+
+    @AfterEach
+    public void stop() {
+        session.stop();
+    };
+
+    @Test
+    public void selectsWithArrows() {
+        press(Key.DOWN, Key.DOWN, Key.UP, Key.DOWN, Key.ENTER);
+        assertEquals(2, menu.getPageOption(FRUITS));
+    };
+
+    @Test
+    public void exitsWithBackspace() {
+        press(Key.DOWN, Key.BACKSPACE);
+        assertEquals(-1, menu.getPageOption(FRUITS));
+    };
+
+    @Test
+    public void skipsLockedOptions() {
+        press(Key.DOWN, Key.ENTER);
+        assertEquals(2, menu.getPageOption(FRUITS, new Integer[] { 1 }));
+    };
+
+    @Test
+    public void skipsLockedDefault() {
+        press(Key.ENTER);
+        assertEquals(1, menu.getPageOption(FRUITS, new Integer[] { 0 }, 0, "Sair"));
+    };
+
+    @Test
+    public void changesPages() {
+        String[] options = new String[12];
+        for(int i = 0; i < options.length; i++) options[i] = "Opção " + i;
+
+        press(Key.RIGHT, Key.RIGHT);
+        try {
+            menu.getPageOption(options, new Integer[0], 5, 0, "Sair");
+        } catch (InputEnded _) {}
+        assertTrue(backend.getScreen().contains("3 / 3"), backend.getScreen());
+        assertTrue(backend.getScreen().contains("Opção 10"), backend.getScreen());
+        assertFalse(backend.getScreen().contains("Opção 4"), backend.getScreen());
+    };
+
+    @Test
+    public void selectsOnOtherPages() {
+        String[] options = new String[12];
+        for(int i = 0; i < options.length; i++) options[i] = "Opção " + i;
+
+        press(Key.RIGHT, Key.DOWN, Key.ENTER);
+        assertEquals(6, menu.getPageOption(options, new Integer[0], 5, 0, "Sair"));
+    };
+
+    @Test
+    public void filtersByTypedWords() {
+        backend.type("ma");
+        press(Key.DOWN, Key.ENTER);
+        assertEquals(2, menu.getPageOption(FRUITS));
+    };
+
+    @Test
+    public void filtersIgnoringAccents() {
+        backend.type("maca");
+        press(Key.ENTER);
+        assertEquals(0, menu.getPageOption(FRUITS));
+    };
+
+    @Test
+    public void filterErasesWithBackspace() {
+        backend.type("uv");
+        press(Key.BACKSPACE, Key.BACKSPACE, Key.DOWN, Key.ENTER);
+        // The option selected while filtering stays selected
+        assertEquals(4, menu.getPageOption(FRUITS));
+    };
+
+    @Test
+    public void filterKeepsLockedOptions() {
+        backend.type("ma");
+        press(Key.ENTER);
+        // Maçã is locked, so the first match selected is Manga
+        assertEquals(2, menu.getPageOption(FRUITS, new Integer[] { 0 }));
+    };
+
+    @Test
+    public void sourcesThatCantSearchIgnoreTyping() {
+        Numbers source = new Numbers(false);
+        backend.type("99");
+        press(Key.DOWN, Key.ENTER);
+        assertEquals(1, menu.getPageOption(source));
+        assertTrue(source.highest < 8, "read label " + source.highest);
+    };
+
+    @Test
+    public void sourcesSearchTheirOwnMatches() {
+        Numbers source = new Numbers(true);
+        backend.type("99");
+        press(Key.DOWN, Key.ENTER);
+        // The matches are 99, 990 to 999, 9900 to 9999 and so on
+        assertEquals(990, menu.getPageOption(source));
+        assertEquals(2, source.searches);
+        // Each page of matches is loaded at once, and no other label is read
+        assertEquals(source.labels, source.loaded);
+        assertTrue(source.largestLoad <= 8, "loaded " + source.largestLoad);
+    };
+
+    @Test
+    public void reflowsAtOnceWhenResized() throws InterruptedException {
+        menu.header("Menu");
+        Thread widget = new Thread(() -> {
+            try {
+                menu.getPageOption(FRUITS);
+            } catch (InputEnded _) {}
+        });
+        widget.start();
+        waitFor(() -> backend.getScreen().contains("Uva"));
+        // Past the first repaint, the size is only checked again in a second
+        Thread.sleep(300);
+
+        long start = System.nanoTime();
+        backend.resize(60, 20);
+        waitFor(() -> Width.of(backend.getRow(0)) == 59);
+        assertTrue(System.nanoTime() - start < 500_000_000L);
+        backend.close();
+        widget.join();
+    };
+
+    @Test
+    public void idleMenusDontMeasureTheTerminal() throws InterruptedException {
+        AtomicInteger measures = new AtomicInteger();
+        HeadlessBackend counted = new HeadlessBackend(40, 20) {
+            @Override
+            public synchronized int width() {
+                measures.incrementAndGet();
+                return super.width();
+            };
+        };
+        Session idle = new Session(counted);
+        idle.getTerminal().setAsyncInput(false);
+        idle.getMenu().start();
+        Thread widget = new Thread(() -> {
+            try {
+                idle.getMenu().getPageOption(FRUITS);
+            } catch (InputEnded _) {}
+        });
+        widget.start();
+        waitFor(() -> counted.getScreen().contains("Uva"));
+
+        // The backend tells resizes, so the waiting menu isn't measured again
+        Thread.sleep(200);
+        int measured = measures.get();
+        Thread.sleep(1500);
+        assertEquals(measured, measures.get());
+        counted.close();
+        widget.join();
+        idle.stop();
+    };
+
+    @Test
+    public void idleReadersWaitForInput() throws InterruptedException {
+        AtomicInteger checks = new AtomicInteger();
+        HeadlessBackend counted = new HeadlessBackend(40, 20) {
+            @Override
+            public synchronized boolean available() {
+                checks.incrementAndGet();
+                return super.available();
+            };
+        };
+        Session idle = new Session(counted);
+        idle.getTerminal().setAsyncInput(true);
+        idle.getMenu().start();
+        AtomicInteger selected = new AtomicInteger(-2);
+        Thread widget = new Thread(() -> {
+            try {
+                selected.set(idle.getMenu().getPageOption(FRUITS));
+            } catch (InputEnded _) {}
+        });
+        widget.start();
+        waitFor(() -> counted.getScreen().contains("Uva"));
+
+        // The reader waits for the backend to tell a key arrived, instead of asking
+        Thread.sleep(300);
+        assertEquals(0, checks.get());
+        counted.press(Key.DOWN);
+        counted.press(Key.ENTER);
+        widget.join(2000);
+        assertEquals(1, selected.get());
+        idle.stop();
+    };
+
+    @Test
+    public void failingRegionsAreRecorded()throws InterruptedException {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        try {
+            // The first text is painted by the frame, the others by the scheduler
+            AtomicInteger calls = new AtomicInteger();
+            menu.live(() -> {
+                if(calls.getAndIncrement() > 0) throw new IllegalStateException();
+                return "ok";
+            });
+            waitFor(() -> Metrics.snapshot().getFailures() > 0);
+        } finally {
+            Metrics.setEnabled(false);
+            Metrics.reset();
+        }
+    };
+
+    /**
+     * Options from 0 to 99999, as a source that fetches them in batches
+     */
+    private static class Numbers implements OptionSource {
+        private boolean searchable;
+        private int highest = -1;
+        private int searches = 0;
+        private int labels = 0;
+        private int loaded = 0;
+        private int largestLoad = 0;
+
+        private Numbers(boolean searchable) {
+            this.searchable = searchable;
+        };
+
+        @Override
+        public int size() {
+            return 100_000;
+        };
+
+        @Override
+        public String label(int index) {
+            highest = Math.max(highest, index);
+            labels++;
+            return Integer.toString(index);
+        };
+
+        @Override
+        public void load(int from, int to) {
+            loaded += to - from;
+            largestLoad = Math.max(largestLoad, to - from);
+        };
+
+        @Override
+        public void load(int[] indexes) {
+            loaded += indexes.length;
+            largestLoad = Math.max(largestLoad, indexes.length);
+        };
+
+        @Override
+        public int[] search(String query) {
+            if(!searchable) return null;
+            searches++;
+            return IntStream.range(0, size()).filter((i) -> Integer.toString(i).startsWith(query)).toArray();
+        };
+    };
+
+    private void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while(!condition.getAsBoolean() && System.nanoTime() < deadline) Thread.sleep(10);
+        assertTrue(condition.getAsBoolean(), backend.getScreen());
+    };
+
+    private void press(Key... keys) {
+        for(Key key : keys) backend.press(key);
+        backend.close();
+    };
+};
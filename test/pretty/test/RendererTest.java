@@ -0,0 +1,123 @@
+package pretty.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pretty.Session;
+import pretty.backends.HeadlessBackend;
+import pretty.layout.Menu;
+
+/**
+ * Frames diffed against the last one, checked on the headless screen
+ */
+public class RendererTest {
+    private HeadlessBackend backend;
+    private Session session;
+    private Menu menu;
+
+    @BeforeEach
+    public void start() {
+        backend = new HeadlessBackend(40, 20);
+        session = new Session(backend);
+        session.getTerminal().setAsyncInput(false);
+        menu = session.getMenu();
+        menu.start();
+    };
+
+    @AfterEach
+    public void stop() {
+        session.stop();
+    };
+
+    @Test
+    public void rollbackRewritesTheChangedRow() {
+        menu.push("line 1");
+        menu.push("line 2");
+        menu.push("line 3");
+        long written = backend.getWritten();
+        menu.rollback(1);
+        menu.push("line 3 changed");
+
+        assertEquals("line 1", backend.getRow(0));
+        assertEquals("line 2", backend.getRow(1));
+        assertEquals("line 3 changed", backend.getRow(2));
+        assertEquals("", backend.getRow(3));
+        // Only the last row is written again, not the whole frame
+        assertTrue(backend.getWritten() - written < 60, "wrote " + (backend.getWritten() - written));
+    };
+
+    @Test
+    public void rollbackErasesTheRowsBelow() {
+        menu.push("line 1");
+        menu.push("line 2");
+        menu.push("line 3");
+        menu.rollback(2);
+
+        assertEquals("line 1", backend.getRow(0));
+        assertEquals("", backend.getRow(1));
+        assertEquals("", backend.getRow(2));
+        assertEquals(1, backend.getCursorRow());
+    };
+
+    @Test
+    public void transactionDrawsASingleFrame() {
+        menu.push("line 1");
+        long writes = backend.getWrites();
+        menu.begin();
+        try {
+            menu.rollback(1);
+            for(int i = 0; i < 5; i++) menu.push("row " + i);
+        } finally {
+            menu.commit();
+        }
+
+        assertEquals(1, backend.getWrites() - writes);
+        for(int i = 0; i < 5; i++) assertEquals("row " + i, backend.getRow(i));
+    };
+
+    @Test
+    public void wrappedLinesTakeManyRows() {
+        String wide = "X".repeat(60);
+        menu.push("short 1");
+        menu.push(wide);
+        menu.push("line 3");
+        menu.push("line 4");
+        menu.rollback(1);
+        menu.push("line 4 changed");
+
+        assertEquals("short 1", backend.getRow(0));
+        assertEquals(wide.substring(0, 40), backend.getRow(1));
+        assertEquals(wide.substring(40), backend.getRow(2));
+        assertEquals("line 3", backend.getRow(3));
+        assertEquals("line 4 changed", backend.getRow(4));
+    };
+
+    @Test
+    public void wrappedLineIsRewrittenWhole() {
+        menu.push("Y".repeat(50));
+        menu.push("end");
+        menu.rollback(2);
+        menu.push("short");
+        menu.push("end");
+
+        assertEquals("short", backend.getRow(0));
+        assertEquals("end", backend.getRow(1));
+        assertEquals("", backend.getRow(2));
+    };
+
+    @Test
+    public void linesWithBreaksTakeManyRows() {
+        menu.push("a\nb");
+        menu.push("c");
+        menu.rollback(1);
+        menu.push("d");
+
+        assertEquals("a", backend.getRow(0));
+        assertEquals("b", backend.getRow(1));
+        assertEquals("d", backend.getRow(2));
+    };
+};
@@ -0,0 +1,124 @@
+package pretty.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pretty.Router;
+import pretty.Session;
+import pretty.backends.HeadlessBackend;
+import pretty.interfaces.Page;
+import pretty.keys.Key;
+
+/**
+ * Frame cache of the router, going from a page to others and back
+ */
+public class RouterTest {
+    private HeadlessBackend backend;
+    private Session session;
+    private Router router;
+    private int queries = 0;
+    private int rounds = 0;
+    private List<Integer> selections = new ArrayList<Integer>();
+
+    // Remembers its data and navigates to the next page only on the first round
+    private Page first = (menu, router) -> {
+        String[] data = router.remember("data", () -> {
+            queries++;
+            return new String[] { "a", "b", "c" };
+        });
+        menu.header("Primeira");
+        selections.add(menu.getPageOption(data));
+        if(rounds++ == 0) router.navigate(this.second);
+    };
+
+    private Page second = (menu, router) -> {
+        menu.header("Segunda");
+        if(menu.getPageOption(new String[] { "x" }) == -1) router.back();
+        else router.navigate(this.third);
+    };
+
+    private Page third = (menu, router) -> {
+        menu.header("Terceira");
+        menu.pushPageBack();
+        router.back();
+    };
+
+    @BeforeEach
+    public void start() {
+        backend = new HeadlessBackend(40, 20);
+        session = new Session(backend);
+        session.getTerminal().setAsyncInput(false);
+        router = session.getRouter();
+    };
+
+    @AfterEach
+    public void stop() {
+        session.stop();
+    };
+
+    @Test
+    public void cachedPageKeepsDataAndSelection() {
+        router.setFrameCache(4);
+        press(Key.DOWN, Key.DOWN, Key.ENTER, Key.BACKSPACE, Key.ENTER);
+        router.start(first);
+
+        assertEquals(List.of(2, 2), selections);
+        assertEquals(1, queries);
+    };
+
+    @Test
+    public void withoutCachePageIsRenderedAgain() {
+        press(Key.DOWN, Key.DOWN, Key.ENTER, Key.BACKSPACE, Key.ENTER);
+        router.start(first);
+
+        assertEquals(List.of(2, 0), selections);
+        assertEquals(2, queries);
+    };
+
+    @Test
+    public void leastRecentlyUsedFrameIsEvicted() {
+        // The second page is saved when going to the third, evicting the first
+        router.setFrameCache(1);
+        press(Key.DOWN, Key.ENTER, Key.ENTER, Key.BACKSPACE, Key.BACKSPACE, Key.ENTER);
+        router.start(first);
+
+        assertEquals(List.of(1, 0), selections);
+        assertEquals(2, queries);
+    };
+
+    @Test
+    public void framesFittingTheCacheAreKept() {
+        router.setFrameCache(2);
+        press(Key.DOWN, Key.ENTER, Key.ENTER, Key.BACKSPACE, Key.BACKSPACE, Key.ENTER);
+        router.start(first);
+
+        assertEquals(List.of(1, 1), selections);
+        assertEquals(1, queries);
+    };
+
+    @Test
+    public void invalidatedPageIsRenderedAgain() {
+        router.setFrameCache(4);
+        second = (menu, router) -> {
+            router.invalidate(first);
+            menu.pushPageBack();
+            router.back();
+        };
+        press(Key.DOWN, Key.ENTER, Key.BACKSPACE, Key.ENTER);
+        router.start(first);
+
+        assertEquals(List.of(1, 0), selections);
+        assertEquals(2, queries);
+    };
+
+    private void press(Key... keys) {
+        for(Key key : keys) backend.press(key);
+        backend.close();
+    };
+};
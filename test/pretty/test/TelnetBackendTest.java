@@ -0,0 +1,153 @@
+package pretty.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pretty.keys.Key;
+import pretty.keys.KeyEvent;
+import pretty.server.TelnetBackend;
+
+/**
+ * Telnet negotiation of a backend, with a client on a local socket
+ */
+public class TelnetBackendTest {
+    private static final int IAC = 255;
+    private static final int DONT = 254;
+    private static final int DO = 253;
+    private static final int WILL = 251;
+    private static final int SB = 250;
+    private static final int SE = 240;
+
+    private ServerSocketChannel server;
+    private Socket client;
+    private TelnetBackend backend;
+
+    @BeforeEach
+    public void start() throws IOException {
+        InetAddress address = InetAddress.getLoopbackAddress();
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(address, 0));
+        // Small buffers, so a client sending more than is read has to wait
+        server.setOption(StandardSocketOptions.SO_RCVBUF, 8192);
+        client = new Socket();
+        client.setSendBufferSize(8192);
+        client.connect(server.getLocalAddress());
+        SocketChannel channel = server.accept();
+        backend = new TelnetBackend(channel, Executors.defaultThreadFactory());
+        backend.start();
+    };
+
+    @AfterEach
+    public void stop() throws IOException {
+        backend.close();
+        client.close();
+        server.close();
+    };
+
+    @Test
+    public void negotiatesCharacterMode() throws IOException {
+        int[] expected = {
+            IAC, WILL, 1,
+            IAC, WILL, 3,
+            IAC, DO, 3,
+            IAC, DO, 31,
+            IAC, DONT, 34
+        };
+        InputStream input = client.getInputStream();
+        int[] received = new int[expected.length];
+        for(int i = 0; i < received.length; i++) received[i] = input.read();
+        assertArrayEquals(expected, received);
+    };
+
+    @Test
+    public void readsTheWindowSize() throws IOException {
+        assertEquals(80, backend.width());
+        send(IAC, SB, 31, 0, 100, 0, 30, IAC, SE);
+        send('a');
+        // The size is read before the key that follows it
+        assertEquals(KeyEvent.character('a'), backend.read());
+        assertEquals(100, backend.width());
+        assertEquals(30, backend.height());
+
+        send(IAC, SB, 31, 1, 44, 0, 50, IAC, SE, 'b');
+        assertEquals(KeyEvent.character('b'), backend.read());
+        assertEquals(300, backend.width());
+        assertEquals(50, backend.height());
+    };
+
+    @Test
+    public void readsEscapedSizeBytes() throws IOException {
+        // A 255 in the size is sent twice
+        send(IAC, SB, 31, 0, IAC, IAC, 0, 40, IAC, SE, 'a');
+        assertEquals(KeyEvent.character('a'), backend.read());
+        assertEquals(255, backend.width());
+        assertEquals(40, backend.height());
+    };
+
+    @Test
+    public void skipsCommandsAmongKeys() throws IOException {
+        send('a', IAC, WILL, 1, IAC, DO, 3, '\033', '[', 'A', IAC, 241, 'b');
+        assertEquals(KeyEvent.character('a'), backend.read());
+        assertEquals(KeyEvent.of(Key.UP), backend.read());
+        assertEquals(KeyEvent.character('b'), backend.read());
+    };
+
+    @Test
+    public void readsReturnAsEnter() throws IOException {
+        send('\r', 0, '\r', '\n', 'a');
+        assertEquals(KeyEvent.of(Key.ENTER), backend.read());
+        assertEquals(KeyEvent.of(Key.ENTER), backend.read());
+        assertEquals(KeyEvent.character('a'), backend.read());
+    };
+
+    @Test
+    public void holdsBackInputWhileFull() throws IOException, InterruptedException {
+        byte[] keys = new byte[1 << 20];
+        Arrays.fill(keys, (byte) 'a');
+        Thread writer = new Thread(() -> {
+            try {
+                OutputStream output = client.getOutputStream();
+                output.write(keys);
+                output.flush();
+            } catch (IOException _) {}
+        });
+        writer.start();
+
+        // The keys not read wait in the connection, so the client can't send them all
+        writer.join(500);
+        assertTrue(writer.isAlive());
+        for(int i = 0; i < keys.length; i++) assertEquals(KeyEvent.character('a'), backend.read());
+        writer.join(2000);
+        assertFalse(writer.isAlive());
+        assertFalse(backend.available());
+    };
+
+    @Test
+    public void endsWhenTheClientLeaves() throws IOException {
+        client.close();
+        assertEquals(KeyEvent.NONE, backend.read());
+    };
+
+    private void send(int... values) throws IOException {
+        OutputStream output = client.getOutputStream();
+        for(int value : values) output.write(value);
+        output.flush();
+    };
+};
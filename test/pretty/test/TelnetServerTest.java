@@ -0,0 +1,73 @@
+package pretty.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pretty.server.TelnetServer;
+
+/**
+ * Connections to a server limited to one session at a time
+ */
+public class TelnetServerTest {
+    private TelnetServer server;
+
+    @BeforeEach
+    public void start() throws IOException {
+        server = new TelnetServer(0, () -> (menu, router) -> menu.getPageOption(new String[] { "a", "b" }));
+        server.setMaxSessions(1);
+        server.start();
+    };
+
+    @AfterEach
+    public void stop() {
+        server.stop();
+    };
+
+    @Test
+    public void rejectsConnectionsBeyondTheLimit() throws IOException, InterruptedException {
+        try (Socket _ = connect()) {
+            waitSessions(1);
+            try (Socket second = connect()) {
+                String message = new String(second.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(message.startsWith("Servidor cheio"), message);
+            }
+            assertEquals(1, server.getSessions());
+        }
+    };
+
+    @Test
+    public void acceptsAgainWhenASessionEnds() throws IOException, InterruptedException {
+        try (Socket _ = connect()) {
+            waitSessions(1);
+        }
+        waitSessions(0);
+        try (Socket second = connect()) {
+            // The first thing served to an accepted connection is the negotiation
+            InputStream input = second.getInputStream();
+            assertEquals(255, input.read());
+            waitSessions(1);
+        }
+    };
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setSoTimeout(2000);
+        return socket;
+    };
+
+    private void waitSessions(int sessions) throws InterruptedException {
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while(server.getSessions() != sessions && System.nanoTime() < deadline) Thread.sleep(10);
+        assertEquals(sessions, server.getSessions());
+    };
+};
@@ -0,0 +1,51 @@
+package pretty.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import pretty.utils.Width;
+
+/**
+ * Columns of text with styles, accents and wide characters
+ */
+public class WidthTest {
+    @Test
+    public void measuresColumns() {
+        assertEquals(5, Width.of("hello"));
+        assertEquals(4, Width.of("maçã"));
+        assertEquals(4, Width.of("界界"));
+        assertEquals(2, Width.of("\033[1mok\033[0m"));
+    };
+
+    @Test
+    public void cutsPlainText() {
+        assertEquals(3, Width.cut("abcdef", 3));
+        assertEquals(6, Width.cut("abcdef", 10));
+        assertEquals(0, Width.cut("abcdef", 0));
+    };
+
+    @Test
+    public void cutsWideCharactersWhole() {
+        // A wide character that doesn't fit goes to the next row
+        assertEquals(1, Width.cut("界界界", 3));
+        assertEquals(2, Width.cut("界界界", 4));
+        assertEquals(1, Width.cut("a界", 2));
+    };
+
+    @Test
+    public void cutsKeepingMarksAndStyles() {
+        // The accent is a mark of its own, kept with the letter before it
+        assertEquals(2, Width.cut("e\u0301x", 1));
+        assertEquals(5, Width.cut("\033[1mab", 1));
+    };
+
+    @Test
+    public void truncatesWithEllipsis() {
+        assertEquals("abc\u2026", Width.truncate("abcdef", 4));
+        assertEquals("ma\u2026", Width.truncate("maçãs", 3));
+        // Styles are reset before the ellipsis
+        assertEquals("\033[1mab\033[0m\u2026", Width.truncate("\033[1mabcd\033[0m", 3));
+        assertEquals(3, Width.of("\033[1mab\033[0m\u2026"));
+    };
+};